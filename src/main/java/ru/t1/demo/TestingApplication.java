@@ -1,7 +1,24 @@
 package ru.t1.demo;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import ru.t1.demo.dto.TaskConflictPolicy;
+import ru.t1.demo.dto.TaskCopyFormat;
+import ru.t1.demo.dto.TaskImportResultDto;
+import ru.t1.demo.service.TaskCopyService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 @SpringBootApplication
 public class TestingApplication {
@@ -10,4 +27,43 @@ public class TestingApplication {
 		SpringApplication.run(TestingApplication.class, args);
 	}
 
+	// --tasks.export=<file> or --tasks.import=<file> with --spring.main.web-application-type=none: copies and exits;
+	// the extension picks CSV or NDJSON unless --tasks.copy.format is given
+	@Bean
+	@Profile("!reactive & !memory")
+	ApplicationRunner taskCopyRunner(TaskCopyService taskCopyService,
+									 ConfigurableApplicationContext context,
+									 @Value("${tasks.import.on-conflict:SKIP}") TaskConflictPolicy conflictPolicy,
+									 @Value("${tasks.copy.format:#{null}}") TaskCopyFormat format) {
+		return args -> {
+			List<String> exports = args.getOptionValues("tasks.export");
+			List<String> imports = args.getOptionValues("tasks.import");
+			if (exports == null && imports == null) {
+				return;
+			}
+
+			if (exports != null) {
+				Path path = Path.of(exports.get(0));
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+					long rows = taskCopyService.exportTasks(format != null ? format : formatOf(path), out);
+					System.out.printf("Exported %d tasks to %s%n", rows, path);
+				}
+			}
+			if (imports != null) {
+				Path path = Path.of(imports.get(0));
+				try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+					TaskImportResultDto result = taskCopyService.importTasks(format != null ? format : formatOf(path), conflictPolicy, in);
+					System.out.printf("Imported %s: %d rows, %d created, %d updated, %d skipped in %d ms (%.0f rows/s)%n",
+							path, result.rows(), result.created(), result.updated(), result.skipped(), result.elapsedMillis(), result.rowsPerSecond());
+				}
+			}
+
+			System.exit(SpringApplication.exit(context));
+		};
+	}
+
+	private static TaskCopyFormat formatOf(Path path) {
+		return path.getFileName().toString().toLowerCase().endsWith(".csv") ? TaskCopyFormat.CSV : TaskCopyFormat.NDJSON;
+	}
+
 }
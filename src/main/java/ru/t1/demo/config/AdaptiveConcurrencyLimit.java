@@ -0,0 +1,86 @@
+package ru.t1.demo.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Gradient concurrency limit: grows while latency stays within tolerance of its long-term average, shrinks
+// by at most half as it rises; a 5xx counts as the slowest. Only a limit at least half in use adapts
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    // the long-term average covers about this many requests
+    private static final int BASELINE_WINDOW = 500;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile double limit;
+    private double baselineNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    // share < 1 leaves the rest of the limit to callers with a larger share
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // a negative latency releases without a sample
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos < 0) {
+            return;
+        }
+        updateLock.lock();
+        try {
+            update(latencyNanos, inFlightBefore, failed);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(long latencyNanos, int inFlightBefore, boolean failed) {
+        if (!failed) {
+            samples++;
+            baselineNanos += (latencyNanos - baselineNanos) / Math.min(samples, BASELINE_WINDOW);
+            // after a slow spell the average trails far behind: let it come down faster
+            if (baselineNanos > 2 * latencyNanos) {
+                baselineNanos *= 0.95;
+            }
+        }
+        if (!failed && inFlightBefore < limit / 2) {
+            return;
+        }
+
+        double gradient = failed ? MIN_GRADIENT : Math.clamp(tolerance * baselineNanos / latencyNanos, MIN_GRADIENT, 1.0);
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.clamp(limit * (1 - SMOOTHING) + target * SMOOTHING, minLimit, maxLimit);
+    }
+}
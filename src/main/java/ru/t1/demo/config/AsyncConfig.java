@@ -0,0 +1,10 @@
+package ru.t1.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async methods run on Boot's applicationTaskExecutor, which follows spring.threads.virtual.enabled
+@EnableAsync
+@Configuration
+public class AsyncConfig {
+}
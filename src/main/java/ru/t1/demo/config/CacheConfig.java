@@ -0,0 +1,13 @@
+package ru.t1.demo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// the tasks cache is read and evicted through TaskCacheService
+@EnableCaching
+@Configuration
+public class CacheConfig {
+
+    public static final String TASKS_CACHE = "tasks";
+
+}
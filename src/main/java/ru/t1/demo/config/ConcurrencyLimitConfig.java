@@ -0,0 +1,41 @@
+package ru.t1.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@ConditionalOnProperty(name = "tasks.limiter.enabled", havingValue = "true", matchIfMissing = true)
+@Profile("!reactive")
+@Configuration(proxyBeanMethods = false)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final TaskConcurrencyLimitInterceptor interceptor;
+
+    public ConcurrencyLimitConfig(MeterRegistry meterRegistry,
+                                  @Value("${tasks.limiter.read.initial-limit:20}") int readInitialLimit,
+                                  @Value("${tasks.limiter.read.max-limit:200}") int readMaxLimit,
+                                  @Value("${tasks.limiter.write.initial-limit:10}") int writeInitialLimit,
+                                  @Value("${tasks.limiter.write.max-limit:100}") int writeMaxLimit,
+                                  @Value("${tasks.limiter.min-limit:4}") int minLimit,
+                                  @Value("${tasks.limiter.tolerance:2.0}") double tolerance,
+                                  @Value("${tasks.limiter.scan-share:0.5}") double scanShare,
+                                  @Value("${tasks.limiter.retry-after:1s}") Duration retryAfter) {
+        this.interceptor = new TaskConcurrencyLimitInterceptor(
+                new AdaptiveConcurrencyLimit(readInitialLimit, minLimit, readMaxLimit, tolerance),
+                new AdaptiveConcurrencyLimit(writeInitialLimit, minLimit, writeMaxLimit, tolerance),
+                scanShare,
+                retryAfter,
+                meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/api/v1/tasks/**");
+    }
+}
@@ -0,0 +1,55 @@
+package ru.t1.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// second-level cache for Task, read by the batch update and delete; native writes evict through TaskSecondLevelCache
+@Profile("!reactive & !memory")
+@Configuration(proxyBeanMethods = false)
+public class HibernateCacheConfig {
+
+    public static final String TASK_REGION = "task";
+
+    // JCache hands out one manager per URI, so each application context gets a fresh one instead of sharing
+    // regions with every other context in the JVM
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(@Value("${tasks.hibernate-cache.task.maximum-size:10000}") long taskSize,
+                                       @Value("${tasks.hibernate-cache.task.expire-after-write:10m}") Duration taskTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), HibernateCacheConfig.class.getClassLoader());
+
+        cacheManager.createCache(TASK_REGION, region(taskSize, taskTtl));
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    // Hibernate stores immutable cache entries, so copying them in and out on every access would only cost
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        return configuration;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.t1.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+// InMemoryTaskStore applies each write atomically on its own, so the @Transactional boundaries of the services
+// have nothing to begin or commit; this manager only lets them run without a DataSource
+@Profile("memory")
+@Configuration(proxyBeanMethods = false)
+public class InMemoryStoreConfig {
+
+    @Bean
+    PlatformTransactionManager transactionManager() {
+        return new NoOpTransactionManager();
+    }
+
+    static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        NoOpTransactionManager() {
+            setTransactionSynchronization(SYNCHRONIZATION_NEVER);
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
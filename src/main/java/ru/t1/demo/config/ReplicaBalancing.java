@@ -0,0 +1,7 @@
+package ru.t1.demo.config;
+
+public enum ReplicaBalancing {
+    ROUND_ROBIN,
+    // fewest connections currently in use, read from each replica's Hikari pool
+    LEAST_CONNECTIONS
+}
@@ -0,0 +1,92 @@
+package ru.t1.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands out connections for read-only transactions, balanced over the replica pools.
+// Inside a usePrimary() scope reads go to the primary instead, e.g. right after the same client wrote.
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final List<HikariDataSource> replicas;
+    private final DataSource primary;
+    private final ReplicaBalancing balancing;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(List<HikariDataSource> replicas, DataSource primary, ReplicaBalancing balancing) {
+        this.replicas = List.copyOf(replicas);
+        this.primary = primary;
+        this.balancing = balancing;
+    }
+
+    public static PrimaryScope usePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return PRIMARY_REQUIRED::remove;
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isPrimaryRequired()) {
+            return primary.getConnection();
+        }
+        return pick().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (isPrimaryRequired()) {
+            return primary.getConnection(username, password);
+        }
+        return pick().getConnection(username, password);
+    }
+
+    private HikariDataSource pick() {
+        if (replicas.size() == 1) {
+            return replicas.get(0);
+        }
+        return switch (balancing) {
+            case ROUND_ROBIN -> replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            case LEAST_CONNECTIONS -> {
+                HikariDataSource least = replicas.get(0);
+                int leastActive = Integer.MAX_VALUE;
+                for (HikariDataSource replica : replicas) {
+                    int active = activeConnections(replica);
+                    if (active < leastActive) {
+                        least = replica;
+                        leastActive = active;
+                    }
+                }
+                yield least;
+            }
+        };
+    }
+
+    private static int activeConnections(HikariDataSource replica) {
+        // the pool starts with the first connection request
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    public interface PrimaryScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.t1.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Active once tasks.datasource.replica-urls is set. The lazy proxy connects at the first statement, so read-only
+// transactions go to the replicas and everything else to the primary
+@Profile("!reactive & !memory")
+@ConditionalOnProperty("tasks.datasource.replica-urls")
+@Configuration(proxyBeanMethods = false)
+public class ReplicaDataSourceConfig {
+
+    // connection details come from a @ServiceConnection (tests) when present, spring.datasource.* otherwise
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties, ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        connectionDetails.ifAvailable(details -> {
+            dataSource.setJdbcUrl(details.getJdbcUrl());
+            dataSource.setUsername(details.getUsername());
+            dataSource.setPassword(details.getPassword());
+            dataSource.setDriverClassName(details.getDriverClassName());
+        });
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // replicas share the primary's credentials and pool settings
+    @Bean
+    ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                        @Value("${tasks.datasource.replica-urls}") List<String> replicaUrls,
+                                        @Value("${tasks.datasource.replica-balancing:ROUND_ROBIN}") ReplicaBalancing balancing,
+                                        ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i));
+            config.setPoolName("replica-" + (i + 1));
+            config.setReadOnly(true);
+            if (config.getMetricsTrackerFactory() == null) {
+                meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            }
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(replicas, primaryDataSource, balancing);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(@Value("${tasks.datasource.read-your-writes-window:2s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
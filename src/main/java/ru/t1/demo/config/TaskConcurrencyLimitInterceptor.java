@@ -0,0 +1,160 @@
+package ru.t1.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.t1.demo.controller.TaskController;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 503 with Retry-After for TaskController requests over the adaptive read or write limit; lists, search and stats
+// get scan-share of the read limit. Streams hold their permit until done; status PATCHes only buffer and pass
+public class TaskConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = TaskConcurrencyLimitInterceptor.class.getName() + ".permit";
+    private static final String POINT_READ_PATTERN = "/api/v1/tasks/{id}";
+    private static final String STATUS_UPDATE_PATTERN = "/api/v1/tasks/{id}/status";
+
+    enum RequestClass {
+        POINT_READ, SCAN, WRITE
+    }
+
+    private record Permit(RequestClass requestClass, long startNanos, boolean streaming, AtomicBoolean released) {
+    }
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final double scanShare;
+    private final String retryAfterSeconds;
+
+    private final Map<RequestClass, Counter> rejectedRequests = new EnumMap<>(RequestClass.class);
+
+    public TaskConcurrencyLimitInterceptor(AdaptiveConcurrencyLimit readLimit,
+                                           AdaptiveConcurrencyLimit writeLimit,
+                                           double scanShare,
+                                           Duration retryAfter,
+                                           MeterRegistry meterRegistry) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.scanShare = scanShare;
+        this.retryAfterSeconds = Long.toString(Math.max(retryAfter.toSeconds(), 1));
+
+        for (RequestClass requestClass : RequestClass.values()) {
+            rejectedRequests.put(requestClass, Counter.builder("tasks.limiter.rejected")
+                    .description("Task API requests answered 503 because their budget was full")
+                    .tag("class", requestClass.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        registerGauges("read", readLimit, meterRegistry);
+        registerGauges("write", writeLimit, meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the dispatch that completes an async request was admitted with it
+        if (!(handler instanceof HandlerMethod method) || method.getBeanType() != TaskController.class
+                || request.getDispatcherType() == DispatcherType.ASYNC
+                || STATUS_UPDATE_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))) {
+            return true;
+        }
+
+        RequestClass requestClass = classify(request);
+        boolean acquired = switch (requestClass) {
+            case POINT_READ -> readLimit.tryAcquire(1.0);
+            case SCAN -> readLimit.tryAcquire(scanShare);
+            case WRITE -> writeLimit.tryAcquire(1.0);
+        };
+        if (!acquired) {
+            rejectedRequests.get(requestClass).increment();
+            // answered here rather than through an exception: no error dispatch for a request we want rid of quickly
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(requestClass, System.nanoTime(), false, new AtomicBoolean()));
+        return true;
+    }
+
+    // the permit moves on to the async part; should the request end without the dispatch back (a dropped client, a
+    // failed dispatch), completing the async context gives it back
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit == null) {
+            return;
+        }
+        Permit streaming = new Permit(permit.requestClass(), permit.startNanos(), true, permit.released());
+        request.setAttribute(PERMIT_ATTRIBUTE, streaming);
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                release(streaming, response.getStatus() >= 500);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                release(streaming, true);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            release(permit, ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    private void release(Permit permit, boolean failed) {
+        if (!permit.released().compareAndSet(false, true)) {
+            return;
+        }
+        AdaptiveConcurrencyLimit limit = permit.requestClass() == RequestClass.WRITE ? writeLimit : readLimit;
+        boolean sample = failed || !permit.streaming();
+        limit.release(sample ? System.nanoTime() - permit.startNanos() : -1, failed);
+    }
+
+    private static RequestClass classify(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            return RequestClass.WRITE;
+        }
+        return POINT_READ_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+                ? RequestClass.POINT_READ
+                : RequestClass.SCAN;
+    }
+
+    private static void registerGauges(String budget, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+        Gauge.builder("tasks.limiter.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Concurrent task API requests currently allowed")
+                .tag("budget", budget)
+                .register(meterRegistry);
+        Gauge.builder("tasks.limiter.in.flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .description("Task API requests holding a permit")
+                .tag("budget", budget)
+                .register(meterRegistry);
+    }
+}
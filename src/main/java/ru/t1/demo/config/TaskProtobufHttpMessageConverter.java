@@ -0,0 +1,69 @@
+package ru.t1.demo.config;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskStatsDto;
+import ru.t1.demo.util.TaskProtobuf;
+
+import java.io.IOException;
+
+// application/x-protobuf for TaskController: one message per task or stats, TaskDto[] as length-delimited messages
+public class TaskProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    public TaskProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TaskDto.class || clazz == TaskDto[].class || clazz == TaskStatsDto.class;
+    }
+
+    // stats are only ever written
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz != TaskStatsDto.class && super.canRead(clazz, mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(inputMessage.getBody());
+        try {
+            return clazz == TaskDto[].class
+                    ? TaskProtobuf.readDelimited(input).toArray(TaskDto[]::new)
+                    : TaskProtobuf.read(input);
+        } catch (InvalidProtocolBufferException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf task: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (body instanceof TaskDto task) {
+            TaskProtobuf.write(task, output);
+        } else if (body instanceof TaskStatsDto stats) {
+            TaskProtobuf.write(stats, output);
+        } else {
+            for (TaskDto task : (TaskDto[]) body) {
+                TaskProtobuf.writeDelimited(task, output);
+            }
+        }
+        output.flush();
+    }
+
+    @Override
+    protected Long getContentLength(Object body, MediaType contentType) {
+        return body instanceof TaskDto task ? (long) TaskProtobuf.size(task) : null;
+    }
+}
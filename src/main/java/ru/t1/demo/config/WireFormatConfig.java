@@ -0,0 +1,19 @@
+package ru.t1.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// task bodies as JSON, Smile, CBOR or protobuf; JSON is tried first, so it answers Accept: */* or none
+@Profile("!reactive")
+@Configuration(proxyBeanMethods = false)
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new TaskProtobufHttpMessageConverter());
+    }
+}
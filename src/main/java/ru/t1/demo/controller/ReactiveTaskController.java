@@ -0,0 +1,93 @@
+package ru.t1.demo.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskStatsDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.service.ReactiveTaskService;
+import ru.t1.demo.util.TaskETags;
+
+import java.util.List;
+import java.util.UUID;
+
+@Profile("reactive")
+@RestController
+@RequestMapping("api/v1/tasks")
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService taskService;
+
+    public ReactiveTaskController(ReactiveTaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<TaskDto>>> getAllTasks(@RequestParam(required = false) UUID after,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           @RequestParam(required = false) List<TaskStatus> status,
+                                                           @RequestParam(required = false) String titlePrefix) {
+        return taskService.getAllTasks(after, limit, status, titlePrefix)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.next() != null) {
+                        response.header(TaskController.NEXT_CURSOR_HEADER, page.next().toString());
+                    }
+                    return response.body(page.items());
+                });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDto> streamAllTasks() {
+        return taskService.streamAllTasks();
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<TaskDto>>> searchTasks(@RequestParam String q,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Integer limit) {
+        return taskService.searchTasks(q, after, limit)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.next() != null) {
+                        response.header(TaskController.NEXT_CURSOR_HEADER, page.next());
+                    }
+                    return response.body(page.items());
+                });
+    }
+
+    @GetMapping("/stats")
+    public Mono<TaskStatsDto> getTaskStats() {
+        return taskService.getTaskStats();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TaskDto>> getTaskById(@PathVariable UUID id) {
+        return taskService.getTaskById(id)
+                .map(task -> ResponseEntity.ok().eTag(TaskETags.of(task)).body(task));
+    }
+
+    @PostMapping
+    public Mono<TaskDto> saveTask(@RequestBody TaskDto dto) {
+        return taskService.saveTask(dto);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteTask(@PathVariable UUID id) {
+        return taskService.deleteTaskById(id);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<TaskDto>> updateTask(@PathVariable UUID id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @RequestBody TaskDto dto) {
+        return taskService.updateTask(id, dto, TaskETags.expectedVersion(ifMatch))
+                .map(task -> ResponseEntity.ok().eTag(TaskETags.of(task)).body(task));
+    }
+
+}
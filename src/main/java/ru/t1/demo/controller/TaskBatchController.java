@@ -0,0 +1,38 @@
+package ru.t1.demo.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import ru.t1.demo.dto.TaskBatchResultDto;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.service.TaskBatchService;
+
+import java.util.List;
+import java.util.UUID;
+
+@Profile("!reactive & !memory")
+@RestController
+@RequestMapping("api/v1/tasks/batch")
+public class TaskBatchController {
+
+    private final TaskBatchService taskBatchService;
+
+    public TaskBatchController(TaskBatchService taskBatchService) {
+        this.taskBatchService = taskBatchService;
+    }
+
+    @PostMapping
+    public List<TaskBatchResultDto> saveTasks(@RequestBody List<TaskDto> dtos) {
+        return taskBatchService.saveTasks(dtos);
+    }
+
+    @PutMapping
+    public List<TaskBatchResultDto> updateTasks(@RequestBody List<TaskDto> dtos) {
+        return taskBatchService.updateTasks(dtos);
+    }
+
+    @DeleteMapping
+    public List<TaskBatchResultDto> deleteTasks(@RequestBody List<UUID> ids) {
+        return taskBatchService.deleteTasks(ids);
+    }
+
+}
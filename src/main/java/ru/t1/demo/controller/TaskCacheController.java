@@ -0,0 +1,24 @@
+package ru.t1.demo.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.t1.demo.dto.CacheStatsDto;
+import ru.t1.demo.service.TaskCacheService;
+
+@RestController
+@RequestMapping("api/v1/tasks/cache")
+public class TaskCacheController {
+
+    private final TaskCacheService taskCacheService;
+
+    public TaskCacheController(TaskCacheService taskCacheService) {
+        this.taskCacheService = taskCacheService;
+    }
+
+    @GetMapping("/stats")
+    public CacheStatsDto getStats() {
+        return taskCacheService.getStats();
+    }
+
+}
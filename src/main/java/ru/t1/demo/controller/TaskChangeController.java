@@ -0,0 +1,78 @@
+package ru.t1.demo.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.t1.demo.dto.TaskChangeDto;
+import ru.t1.demo.service.TaskChangeService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Profile("!reactive & !memory")
+@RestController
+@RequestMapping("api/v1/tasks/changes")
+public class TaskChangeController {
+
+    private final TaskChangeService taskChangeService;
+
+    public TaskChangeController(TaskChangeService taskChangeService) {
+        this.taskChangeService = taskChangeService;
+    }
+
+    // long-poll: answers as soon as there are changes after `since`, resume from X-Next-Cursor
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<TaskChangeDto>>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                                             @RequestParam(required = false) Integer limit) {
+        return taskChangeService.awaitChanges(since, limit)
+                .thenApply(changes -> ResponseEntity.ok()
+                        .header(TaskController.NEXT_CURSOR_HEADER, String.valueOf(nextOffset(changes, since)))
+                        .body(changes));
+    }
+
+    // SSE event ids are offsets, so a reconnecting EventSource resumes through Last-Event-ID
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+
+        long start = since != null ? since : lastEventId != null ? lastEventId : 0;
+        // the loop only blocks while waiting for the relay, which is cheap on a virtual thread
+        Thread.ofVirtual().start(() -> {
+            long offset = start;
+            try {
+                while (open.get()) {
+                    List<TaskChangeDto> changes = taskChangeService.awaitChanges(offset, null).join();
+                    if (changes.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    for (TaskChangeDto change : changes) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(change.offset()))
+                                .name(change.type().name())
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                    offset = nextOffset(changes, offset);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away or the emitter timed out
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+
+        return emitter;
+    }
+
+    private static long nextOffset(List<TaskChangeDto> changes, long since) {
+        return changes.isEmpty() ? since : changes.get(changes.size() - 1).offset();
+    }
+}
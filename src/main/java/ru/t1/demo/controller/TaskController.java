@@ -1,30 +1,109 @@
 package ru.t1.demo.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskPageDto;
+import ru.t1.demo.dto.TaskSearchPageDto;
+import ru.t1.demo.dto.TaskStatsDto;
+import ru.t1.demo.entity.TaskStatus;
 import ru.t1.demo.service.TaskService;
+import ru.t1.demo.service.TaskStatusWriteBehind;
+import ru.t1.demo.util.TaskETags;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("api/v1/tasks")
 public class TaskController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TaskService taskService;
+    private final TaskStatusWriteBehind taskStatusWriteBehind;
+    private final ObjectWriter ndjsonWriter;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskStatusWriteBehind taskStatusWriteBehind, ObjectMapper objectMapper) {
         this.taskService = taskService;
+        this.taskStatusWriteBehind = taskStatusWriteBehind;
+        this.ndjsonWriter = objectMapper.writerFor(TaskDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
     }
 
+    // lists go out as arrays: same JSON, and message converters can tell a task list by its class (protobuf)
     @GetMapping
-    public List<TaskDto> getAllTasks() {
-        return taskService.getAllTasks();
+    public ResponseEntity<TaskDto[]> getAllTasks(@RequestParam(required = false) UUID after,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) List<TaskStatus> status,
+                                                     @RequestParam(required = false) String titlePrefix) {
+        TaskPageDto page = taskService.getAllTasks(after, limit, status, titlePrefix);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next().toString());
+        }
+
+        return response.body(page.items().toArray(TaskDto[]::new));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(outputStream)) {
+                taskService.streamAllTasks(dto -> {
+                    try {
+                        ndjsonWriter.writeValue(generator, dto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeRaw('\n');
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // ranked best match first; pass X-Next-Cursor back as "after" for the next page
+    @GetMapping("/search")
+    public ResponseEntity<TaskDto[]> searchTasks(@RequestParam String q,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(required = false) Integer limit) {
+        TaskSearchPageDto page = taskService.searchTasks(q, after, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next());
+        }
+
+        return response.body(page.items().toArray(TaskDto[]::new));
     }
 
+    @GetMapping("/stats")
+    public TaskStatsDto getTaskStats() {
+        return taskService.getTaskStats();
+    }
+
+    // with an ETag on a GET, Spring answers a matching If-None-Match with 304 and skips the body
     @GetMapping("/{id}")
-    public TaskDto getTaskById(@PathVariable UUID id) {
-        return taskService.getTaskById(id);
+    public ResponseEntity<TaskDto> getTaskById(@PathVariable UUID id) {
+        TaskDto task = taskService.getTaskById(id);
+        return ResponseEntity.ok().eTag(TaskETags.of(task)).body(task);
     }
 
     @PostMapping
@@ -38,8 +117,19 @@ public class TaskController {
     }
 
     @PutMapping("/{id}")
-    public TaskDto updateTask(@PathVariable UUID id, @RequestBody TaskDto dto) {
-        return taskService.updateTask(id, dto);
+    public ResponseEntity<TaskDto> updateTask(@PathVariable UUID id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody TaskDto dto) {
+        TaskDto task = taskService.updateTask(id, dto, TaskETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(TaskETags.of(task)).body(task);
+    }
+
+    // only the status is read from the body; 202 once buffered, 503 when the buffer is full.
+    // Unknown ids are dropped when the buffer is written
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<Void> updateTaskStatus(@PathVariable UUID id, @RequestBody TaskDto dto) {
+        taskStatusWriteBehind.updateStatus(id, dto.status());
+        return ResponseEntity.accepted().build();
     }
 
 }
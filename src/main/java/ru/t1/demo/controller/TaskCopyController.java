@@ -0,0 +1,45 @@
+package ru.t1.demo.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.t1.demo.dto.TaskConflictPolicy;
+import ru.t1.demo.dto.TaskCopyFormat;
+import ru.t1.demo.dto.TaskImportResultDto;
+import ru.t1.demo.service.TaskCopyService;
+
+import java.io.InputStream;
+
+@Profile("!reactive & !memory")
+@RestController
+@RequestMapping("api/v1/tasks")
+public class TaskCopyController {
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final TaskCopyService taskCopyService;
+    private final TaskConflictPolicy defaultConflictPolicy;
+
+    public TaskCopyController(TaskCopyService taskCopyService,
+                              @Value("${tasks.import.on-conflict:SKIP}") TaskConflictPolicy defaultConflictPolicy) {
+        this.taskCopyService = taskCopyService;
+        this.defaultConflictPolicy = defaultConflictPolicy;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "NDJSON") TaskCopyFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format == TaskCopyFormat.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(out -> taskCopyService.exportTasks(format, out));
+    }
+
+    // the request body is handed to COPY FROM STDIN as it arrives
+    @PostMapping("/import")
+    public TaskImportResultDto importTasks(@RequestParam(defaultValue = "NDJSON") TaskCopyFormat format,
+                                           @RequestParam(required = false) TaskConflictPolicy onConflict,
+                                           InputStream body) {
+        return taskCopyService.importTasks(format, onConflict == null ? defaultConflictPolicy : onConflict, body);
+    }
+}
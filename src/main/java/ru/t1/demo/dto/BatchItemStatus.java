@@ -0,0 +1,11 @@
+package ru.t1.demo.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    INVALID,
+    CONFLICT,
+    NOT_FOUND,
+    FAILED,
+}
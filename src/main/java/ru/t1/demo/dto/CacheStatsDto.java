@@ -0,0 +1,7 @@
+package ru.t1.demo.dto;
+
+import lombok.Builder;
+
+@Builder
+public record CacheStatsDto(long size, long hits, long misses, double hitRate, long evictions) {
+}
@@ -0,0 +1,14 @@
+package ru.t1.demo.dto;
+
+import java.util.UUID;
+
+public record TaskBatchResultDto(int index, UUID id, BatchItemStatus status, String message) {
+
+    public static TaskBatchResultDto of(int index, UUID id, BatchItemStatus status) {
+        return new TaskBatchResultDto(index, id, status, null);
+    }
+
+    public static TaskBatchResultDto failed(int index, UUID id, BatchItemStatus status, String message) {
+        return new TaskBatchResultDto(index, id, status, message);
+    }
+}
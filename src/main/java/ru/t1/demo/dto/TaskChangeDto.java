@@ -0,0 +1,12 @@
+package ru.t1.demo.dto;
+
+import lombok.Builder;
+import ru.t1.demo.entity.TaskChangeType;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Builder
+public record TaskChangeDto(long offset, UUID taskId, TaskChangeType type, Map<String, Object> changedFields, Long version, Instant createdAt) {
+}
@@ -0,0 +1,6 @@
+package ru.t1.demo.dto;
+
+public enum TaskCopyFormat {
+    CSV,
+    NDJSON,
+}
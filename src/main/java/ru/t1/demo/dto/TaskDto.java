@@ -1,10 +1,12 @@
 package ru.t1.demo.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Builder;
 import ru.t1.demo.entity.TaskStatus;
 
 import java.util.UUID;
 
 @Builder
-public record TaskDto(UUID id, String title, String description, TaskStatus status) {
+@JsonSerialize(using = TaskDtoSerializer.class)
+public record TaskDto(UUID id, String title, String description, TaskStatus status, Long version) {
 }
@@ -0,0 +1,49 @@
+package ru.t1.demo.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// writes the record fields straight to the generator with pre-encoded names; output matches the default serializer
+public class TaskDtoSerializer extends StdSerializer<TaskDto> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    public TaskDtoSerializer() {
+        super(TaskDto.class);
+    }
+
+    @Override
+    public void serialize(TaskDto task, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(task);
+
+        generator.writeFieldName(ID);
+        if (task.id() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(task.id().toString());
+        }
+        generator.writeFieldName(TITLE);
+        generator.writeString(task.title());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(task.description());
+        generator.writeFieldName(STATUS);
+        // name() is the cached constant string, same text as Jackson's default enum output
+        generator.writeString(task.status() == null ? null : task.status().name());
+        generator.writeFieldName(VERSION);
+        if (task.version() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(task.version());
+        }
+
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.t1.demo.dto;
+
+import lombok.Builder;
+
+@Builder
+public record TaskImportResultDto(long rows, long created, long updated, long skipped, long elapsedMillis, double rowsPerSecond) {
+}
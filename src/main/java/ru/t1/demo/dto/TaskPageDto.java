@@ -0,0 +1,7 @@
+package ru.t1.demo.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record TaskPageDto(List<TaskDto> items, UUID next) {
+}
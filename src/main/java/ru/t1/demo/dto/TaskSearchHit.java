@@ -0,0 +1,21 @@
+package ru.t1.demo.dto;
+
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.UUID;
+
+// a task row together with its ts_rank for the query
+public interface TaskSearchHit {
+
+    UUID getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    TaskStatus getStatus();
+
+    Long getVersion();
+
+    float getRank();
+}
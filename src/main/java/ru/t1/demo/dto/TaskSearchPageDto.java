@@ -0,0 +1,6 @@
+package ru.t1.demo.dto;
+
+import java.util.List;
+
+public record TaskSearchPageDto(List<TaskDto> items, String next) {
+}
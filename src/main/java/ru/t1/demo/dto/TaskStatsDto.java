@@ -0,0 +1,8 @@
+package ru.t1.demo.dto;
+
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.Map;
+
+public record TaskStatsDto(long total, Map<TaskStatus, Long> byStatus) {
+}
@@ -0,0 +1,6 @@
+package ru.t1.demo.dto;
+
+import ru.t1.demo.entity.TaskStatus;
+
+public record TaskStatusCountDto(TaskStatus status, long count) {
+}
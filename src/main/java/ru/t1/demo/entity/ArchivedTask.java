@@ -0,0 +1,42 @@
+package ru.t1.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// a terminal task moved out of task by TaskArchiver; only read by id and counted, rows are written by native statements
+@ToString
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(name = "task_archive")
+public class ArchivedTask {
+
+    @Id
+    private UUID id;
+
+    @Column(unique = true, nullable = false)
+    private String title;
+
+    @Column(nullable = true)
+    private String description;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TaskStatus status;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant statusChangedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -2,7 +2,9 @@ package ru.t1.demo.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.t1.demo.config.HibernateCacheConfig;
 
 import java.util.Objects;
 import java.util.UUID;
@@ -14,11 +16,16 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "task")
+@Table(name = "task", indexes = {
+        // serves status-filtered keyset pages and the per-status counts
+        @Index(name = "idx_task_status_id", columnList = "status, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.TASK_REGION)
 public class Task {
 
     @Id
-    @UuidGenerator
+    @TaskId
     @Setter(AccessLevel.NONE)
     private UUID id;
 
@@ -32,6 +39,11 @@ public class Task {
     @Enumerated(EnumType.STRING)
     private TaskStatus status;
 
+    @Version
+    @Column(nullable = false)
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,7 @@
+package ru.t1.demo.entity;
+
+public enum TaskChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+}
@@ -0,0 +1,36 @@
+package ru.t1.demo.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+// Hibernate creates generators itself, so the strategy comes from the JPA properties rather than a bean
+public class TaskIdGenerator implements BeforeExecutionGenerator {
+
+    private final TaskIdStrategy strategy;
+
+    public TaskIdGenerator(TaskId config, Member idMember, CustomIdGeneratorCreationContext creationContext) {
+        Object setting = creationContext.getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(TaskIdStrategy.PROPERTY);
+        this.strategy = setting == null
+                ? TaskIdStrategy.TIME_ORDERED
+                : TaskIdStrategy.valueOf(setting.toString().trim().toUpperCase());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return strategy.next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.t1.demo.entity;
+
+import ru.t1.demo.util.UuidV7;
+
+import java.util.UUID;
+
+public enum TaskIdStrategy {
+    RANDOM {
+        @Override
+        public UUID next() {
+            return UUID.randomUUID();
+        }
+    },
+    // keeps primary key inserts on the right-most index pages
+    TIME_ORDERED {
+        @Override
+        public UUID next() {
+            return UuidV7.next();
+        }
+    };
+
+    public static final String PROPERTY = "tasks.id-strategy";
+
+    public abstract UUID next();
+}
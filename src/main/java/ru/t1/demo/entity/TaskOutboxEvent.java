@@ -0,0 +1,44 @@
+package ru.t1.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+// written in the same transaction as the task change, drained into task_change by TaskOutboxRelay
+@ToString
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "task_outbox")
+public class TaskOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID taskId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TaskChangeType type;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<String, Object> changedFields;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @ColumnDefault("now()")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant createdAt;
+}
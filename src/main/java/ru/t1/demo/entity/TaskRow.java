@@ -0,0 +1,13 @@
+package ru.t1.demo.entity;
+
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+// R2DBC mapping of the same "task" table that Task maps for JPA
+@Builder(toBuilder = true)
+@Table("task")
+public record TaskRow(@Id UUID id, String title, String description, TaskStatus status, Long version) {
+}
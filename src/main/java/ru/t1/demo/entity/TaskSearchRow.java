@@ -0,0 +1,8 @@
+package ru.t1.demo.entity;
+
+import java.util.UUID;
+
+// ReactiveTaskRepository.search result: Spring Data R2DBC fills interface projections such as TaskSearchHit
+// from TaskRow's columns only, so the rank needs a class of its own
+public record TaskSearchRow(UUID id, String title, String description, TaskStatus status, Long version, float rank) {
+}
@@ -0,0 +1,12 @@
+package ru.t1.demo.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TaskLookupTimeoutException extends RuntimeException {
+    public TaskLookupTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.t1.demo.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TaskSearchException extends RuntimeException {
+    public TaskSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.t1.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate instantiates this by class name, so the per-request counter is a static thread-local
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> QUERY_COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        QUERY_COUNT.set(new int[1]);
+    }
+
+    public static int stop() {
+        int[] count = QUERY_COUNT.get();
+        QUERY_COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    // the current request's counter, for work it hands to another thread
+    public static int[] current() {
+        return QUERY_COUNT.get();
+    }
+
+    public static void attach(int[] count) {
+        if (count == null) {
+            QUERY_COUNT.remove();
+        } else {
+            QUERY_COUNT.set(count);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = QUERY_COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,427 @@
+package ru.t1.demo.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskSearchHit;
+import ru.t1.demo.dto.TaskStatusCountDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.util.TaskConstraints;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// TaskStore for the "memory" profile: a lock-free skip list by id for reads, striped locks for writes, and title
+// and status indexes; tasks.memory.data-dir adds TaskStoreJournal and periodic snapshots
+@Profile("memory")
+@Repository
+public class InMemoryTaskStore implements TaskStore, Closeable {
+
+    private static final int STRIPES = 64;
+    // ts_rank's default weights for the title (A) and description (B) parts of search_vector
+    private static final float TITLE_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private final ConcurrentSkipListMap<UUID, TaskDto> tasks = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, UUID> idsByTitle = new ConcurrentHashMap<>();
+    private final Map<TaskStatus, NavigableSet<UUID>> idsByStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<TaskStatus, LongAdder> countsByStatus = new EnumMap<>(TaskStatus.class);
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private final TaskStoreJournal journal;
+
+    public InMemoryTaskStore(ObjectMapper objectMapper,
+                             @Value("${tasks.memory.data-dir:}") String dataDir,
+                             @Value("${tasks.memory.fsync:false}") boolean fsync) {
+        for (TaskStatus status : TaskStatus.values()) {
+            idsByStatus.put(status, new ConcurrentSkipListSet<>());
+            countsByStatus.put(status, new LongAdder());
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        if (dataDir.isEmpty()) {
+            this.journal = null;
+            return;
+        }
+        this.journal = new TaskStoreJournal(Path.of(dataDir), objectMapper, fsync);
+        try {
+            journal.recover().values().forEach(task -> apply(task.id(), null, task));
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not recover tasks from " + dataDir, e);
+        }
+    }
+
+    @Override
+    public Optional<Task> insertIfTitleAbsent(UUID id, String title, String description, String status) {
+        TaskDto task = new TaskDto(id, title, description, status == null ? null : TaskStatus.valueOf(status), 0L);
+        requireColumns(task);
+
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            if (tasks.containsKey(id)) {
+                throw new DataIntegrityViolationException("Task with id " + id + " already exists");
+            }
+            return put(null, task) ? Optional.of(toEntity(task)) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Task> updateTaskFields(UUID id, String title, String description, String status, Long version) {
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            TaskDto current = tasks.get(id);
+            if (current == null || version != null && !version.equals(current.version())) {
+                return Optional.empty();
+            }
+
+            TaskDto updated = new TaskDto(id,
+                    title != null ? title : current.title(),
+                    description != null ? description : current.description(),
+                    status != null ? TaskStatus.valueOf(status) : current.status(),
+                    current.version() + 1);
+            if (!put(current, updated)) {
+                throw titleTaken(updated.title());
+            }
+            return Optional.of(toEntity(updated));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<UUID> updateStatuses(UUID[] ids, String[] statuses) {
+        List<UUID> updated = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            TaskStatus status = TaskStatus.valueOf(statuses[i]);
+            ReentrantLock lock = lock(ids[i]);
+            lock.lock();
+            try {
+                TaskDto current = tasks.get(ids[i]);
+                if (current != null && current.status() != status) {
+                    put(current, new TaskDto(current.id(), current.title(), current.description(), status, current.version() + 1));
+                    updated.add(current.id());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int deleteTaskById(UUID id) {
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            TaskDto current = tasks.get(id);
+            if (current == null) {
+                return 0;
+            }
+            write(id, current, null);
+            return 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // everything stays in memory: there is no archive to look tasks up in
+    @Override
+    public List<TaskDto> findArchivedDtosByIdIn(Collection<UUID> ids) {
+        return List.of();
+    }
+
+    @Override
+    public List<TaskStatusCountDto> countArchivedByStatus() {
+        return List.of();
+    }
+
+    @Override
+    public Optional<TaskDto> findDtoById(UUID id) {
+        return Optional.ofNullable(tasks.get(id));
+    }
+
+    @Override
+    public List<TaskDto> findDtosByIdIn(Collection<UUID> ids) {
+        List<TaskDto> found = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            TaskDto task = tasks.get(id);
+            if (task != null) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<TaskDto> findAllByOrderByIdAsc(Limit limit) {
+        return tasks.values().stream()
+                .limit(limit.max())
+                .toList();
+    }
+
+    @Override
+    public List<TaskDto> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit) {
+        return tasks.tailMap(id, false).values().stream()
+                .limit(limit.max())
+                .toList();
+    }
+
+    @Override
+    public List<TaskDto> findFiltered(UUID after, Collection<TaskStatus> statuses, String titlePrefix, Limit limit) {
+        Predicate<TaskDto> matches = task -> (statuses == null || statuses.isEmpty() || statuses.contains(task.status()))
+                && (titlePrefix == null || task.title().startsWith(titlePrefix));
+        if (statuses == null || statuses.isEmpty()) {
+            return (after == null ? tasks : tasks.tailMap(after, false)).values().stream()
+                    .filter(matches)
+                    .limit(limit.max())
+                    .toList();
+        }
+
+        // the page is the first matches of the union of the status indexes; a task moving between two of them may
+        // briefly sit in both, the map keeps it once
+        NavigableMap<UUID, TaskDto> page = new TreeMap<>();
+        for (TaskStatus status : EnumSet.copyOf(statuses)) {
+            NavigableSet<UUID> ids = after == null ? idsByStatus.get(status) : idsByStatus.get(status).tailSet(after, false);
+            ids.stream()
+                    .map(tasks::get)
+                    .filter(task -> task != null && matches.test(task))
+                    .limit(limit.max())
+                    .forEach(task -> page.put(task.id(), task));
+        }
+        return page.values().stream()
+                .limit(limit.max())
+                .toList();
+    }
+
+    @Override
+    public List<TaskStatusCountDto> countByStatus() {
+        List<TaskStatusCountDto> counts = new ArrayList<>();
+        countsByStatus.forEach((status, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                counts.add(new TaskStatusCountDto(status, value));
+            }
+        });
+        return counts;
+    }
+
+    // websearch_to_tsquery over a full scan: case-insensitive words, '-' excludes, ranked with ts_rank's weights
+    @Override
+    public List<TaskSearchHit> search(String query, Float afterRank, UUID afterId, int limit) {
+        List<String> required = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        for (String term : query.trim().split("\\s+")) {
+            if (term.startsWith("-")) {
+                excluded.addAll(words(term.substring(1)));
+            } else {
+                required.addAll(words(term));
+            }
+        }
+        if (required.isEmpty()) {
+            return List.of();
+        }
+
+        List<SearchHit> hits = new ArrayList<>();
+        for (TaskDto task : tasks.values()) {
+            List<String> title = words(task.title());
+            List<String> description = task.description() == null ? List.of() : words(task.description());
+            if (excluded.stream().anyMatch(word -> title.contains(word) || description.contains(word))
+                    || !required.stream().allMatch(word -> title.contains(word) || description.contains(word))) {
+                continue;
+            }
+
+            float rank = 0;
+            for (String word : required) {
+                rank += TITLE_WEIGHT * Collections.frequency(title, word) + DESCRIPTION_WEIGHT * Collections.frequency(description, word);
+            }
+            if (afterRank == null || rank < afterRank || rank == afterRank && task.id().compareTo(afterId) > 0) {
+                hits.add(new SearchHit(task, rank));
+            }
+        }
+
+        return hits.stream()
+                .sorted(Comparator.comparing(SearchHit::getRank).reversed().thenComparing(SearchHit::getId))
+                .limit(limit)
+                .map(TaskSearchHit.class::cast)
+                .toList();
+    }
+
+    @Override
+    public Stream<TaskDto> streamAllByOrderByIdAsc() {
+        return tasks.values().stream();
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return tasks.containsKey(id);
+    }
+
+    // every write lock is held while the journal moves on to the next file, so each write is wholly before the
+    // snapshot (applied, in a journal it replaces) or after it (in the journal it keeps)
+    @Scheduled(fixedDelayString = "${tasks.memory.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (journal == null) {
+            return;
+        }
+        long generation;
+        Arrays.stream(locks).forEach(ReentrantLock::lock);
+        try {
+            generation = journal.rotate();
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not rotate the task journal", e);
+        } finally {
+            Arrays.stream(locks).forEach(ReentrantLock::unlock);
+        }
+        if (generation < 0) {
+            return;
+        }
+
+        try {
+            journal.snapshot(generation, tasks.values());
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not write the task snapshot", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            snapshot();
+            journal.close();
+        }
+    }
+
+    // claims the task's title unless it keeps the previous one, then writes it; false when the title is taken
+    private boolean put(TaskDto previous, TaskDto task) {
+        boolean claim = previous == null || !previous.title().equals(task.title());
+        if (claim && idsByTitle.putIfAbsent(task.title(), task.id()) != null) {
+            return false;
+        }
+        try {
+            write(task.id(), previous, task);
+        } catch (RuntimeException e) {
+            if (claim) {
+                idsByTitle.remove(task.title(), task.id());
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    // called with the task's lock held; a task that could not be journaled is not written
+    private void write(UUID id, TaskDto previous, TaskDto task) {
+        if (journal != null) {
+            journal.append(id, task);
+        }
+        apply(id, previous, task);
+    }
+
+    private void apply(UUID id, TaskDto previous, TaskDto task) {
+        if (task != null) {
+            tasks.put(id, task);
+            // recovery writes without claiming the title first
+            if (previous == null) {
+                idsByTitle.putIfAbsent(task.title(), id);
+            }
+            if (previous == null || previous.status() != task.status()) {
+                idsByStatus.get(task.status()).add(id);
+                countsByStatus.get(task.status()).increment();
+            }
+        } else {
+            tasks.remove(id);
+        }
+
+        if (previous != null) {
+            if (task == null || previous.status() != task.status()) {
+                idsByStatus.get(previous.status()).remove(id);
+                countsByStatus.get(previous.status()).decrement();
+            }
+            if (task == null || !previous.title().equals(task.title())) {
+                idsByTitle.remove(previous.title(), id);
+            }
+        }
+    }
+
+    private ReentrantLock lock(UUID id) {
+        return locks[Math.floorMod(id.hashCode(), STRIPES)];
+    }
+
+    // fails the way PostgreSQL's unique index does, so TaskConstraints reports it as a taken title
+    private static DataIntegrityViolationException titleTaken(String title) {
+        return new DataIntegrityViolationException("Task title " + title + " is taken",
+                new SQLException("duplicate key value violates unique constraint \"" + TaskConstraints.TITLE_UNIQUE + "\"", "23505"));
+    }
+
+    // the NOT NULL columns of the task table
+    private static void requireColumns(TaskDto task) {
+        if (task.title() == null || task.status() == null) {
+            throw new DataIntegrityViolationException("Task title and status must not be null");
+        }
+    }
+
+    private static List<String> words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    private static Task toEntity(TaskDto task) {
+        return new Task(task.id(), task.title(), task.description(), task.status(), task.version());
+    }
+
+    private record SearchHit(TaskDto task, float rank) implements TaskSearchHit {
+
+        @Override
+        public UUID getId() {
+            return task.id();
+        }
+
+        @Override
+        public String getTitle() {
+            return task.title();
+        }
+
+        @Override
+        public String getDescription() {
+            return task.description();
+        }
+
+        @Override
+        public TaskStatus getStatus() {
+            return task.status();
+        }
+
+        @Override
+        public Long getVersion() {
+            return task.version();
+        }
+
+        @Override
+        public float getRank() {
+            return rank;
+        }
+    }
+}
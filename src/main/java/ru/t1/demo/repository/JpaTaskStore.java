@@ -0,0 +1,123 @@
+package ru.t1.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskSearchHit;
+import ru.t1.demo.dto.TaskStatusCountDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// TaskStore on PostgreSQL: each operation is one query
+@Profile("!reactive & !memory")
+@Repository
+public class JpaTaskStore implements TaskStore {
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+
+    public JpaTaskStore(TaskRepository taskRepository, EntityManager entityManager) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<Task> insertIfTitleAbsent(UUID id, String title, String description, String status) {
+        return taskRepository.insertIfTitleAbsent(id, title, description, status);
+    }
+
+    @Override
+    public Optional<Task> updateTaskFields(UUID id, String title, String description, String status, Long version) {
+        return taskRepository.updateTaskFields(id, title, description, status, version);
+    }
+
+    @Override
+    public List<UUID> updateStatuses(UUID[] ids, String[] statuses) {
+        return taskRepository.updateStatuses(ids, statuses);
+    }
+
+    @Override
+    public int deleteTaskById(UUID id) {
+        return taskRepository.deleteTaskById(id);
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return taskRepository.existsById(id);
+    }
+
+    @Override
+    public Optional<TaskDto> findDtoById(UUID id) {
+        return taskRepository.findDtoById(id);
+    }
+
+    @Override
+    public List<TaskDto> findDtosByIdIn(Collection<UUID> ids) {
+        return taskRepository.findDtosByIdIn(ids);
+    }
+
+    @Override
+    public List<TaskDto> findArchivedDtosByIdIn(Collection<UUID> ids) {
+        return taskRepository.findArchivedDtosByIdIn(ids);
+    }
+
+    @Override
+    public List<TaskDto> findAllByOrderByIdAsc(Limit limit) {
+        return taskRepository.findAllByOrderByIdAsc(limit);
+    }
+
+    @Override
+    public List<TaskDto> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit) {
+        return taskRepository.findByIdGreaterThanOrderByIdAsc(id, limit);
+    }
+
+    @Override
+    public List<TaskDto> findFiltered(UUID after, Collection<TaskStatus> statuses, String titlePrefix, Limit limit) {
+        // the SQL holds only the filters given, each combination is planned on its own
+        Specification<Task> specification = Specification.where(TaskSpecifications.idAfter(after))
+                .and(TaskSpecifications.statusIn(statuses))
+                .and(TaskSpecifications.titleStartsWith(titlePrefix));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDto> query = cb.createQuery(TaskDto.class);
+        Root<Task> task = query.from(Task.class);
+        query.select(cb.construct(TaskDto.class, task.get("id"), task.get("title"), task.get("description"), task.get("status"), task.get("version")))
+                .where(specification.toPredicate(task, query, cb))
+                .orderBy(cb.asc(task.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    @Override
+    public List<TaskStatusCountDto> countByStatus() {
+        return taskRepository.countByStatus();
+    }
+
+    @Override
+    public List<TaskStatusCountDto> countArchivedByStatus() {
+        return taskRepository.countArchivedByStatus();
+    }
+
+    @Override
+    public List<TaskSearchHit> search(String query, Float afterRank, UUID afterId, int limit) {
+        return taskRepository.search(query, afterRank, afterId, limit);
+    }
+
+    @Override
+    public Stream<TaskDto> streamAllByOrderByIdAsc() {
+        return taskRepository.streamAllByOrderByIdAsc();
+    }
+}
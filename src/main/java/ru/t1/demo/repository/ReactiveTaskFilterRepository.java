@@ -0,0 +1,14 @@
+package ru.t1.demo.repository;
+
+import reactor.core.publisher.Flux;
+import ru.t1.demo.entity.TaskRow;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface ReactiveTaskFilterRepository {
+
+    // keyset page of tasks in any of statuses whose title starts with titlePrefix; an empty filter matches every task
+    Flux<TaskRow> findFiltered(UUID after, Collection<TaskStatus> statuses, String titlePrefix, int limit);
+}
@@ -0,0 +1,40 @@
+package ru.t1.demo.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import reactor.core.publisher.Flux;
+import ru.t1.demo.entity.TaskRow;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.Collection;
+import java.util.UUID;
+
+// the SQL holds only the filters given, each combination is planned on its own
+public class ReactiveTaskFilterRepositoryImpl implements ReactiveTaskFilterRepository {
+    private final R2dbcEntityTemplate template;
+
+    public ReactiveTaskFilterRepositoryImpl(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public Flux<TaskRow> findFiltered(UUID after, Collection<TaskStatus> statuses, String titlePrefix, int limit) {
+        Criteria criteria = Criteria.empty();
+        if (after != null) {
+            criteria = criteria.and("id").greaterThan(after);
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            criteria = criteria.and("status").in(statuses.stream().map(TaskStatus::name).toList());
+        }
+        if (titlePrefix != null && !titlePrefix.isEmpty()) {
+            // backslash is PostgreSQL's default LIKE escape
+            criteria = criteria.and("title").like(TaskSpecifications.escapeLike(titlePrefix) + "%");
+        }
+
+        return template.select(TaskRow.class)
+                .matching(Query.query(criteria).sort(Sort.by("id")).limit(limit))
+                .all();
+    }
+}
@@ -0,0 +1,125 @@
+package ru.t1.demo.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.t1.demo.dto.TaskStatusCountDto;
+import ru.t1.demo.entity.TaskRow;
+import ru.t1.demo.entity.TaskSearchRow;
+
+import java.util.UUID;
+
+// the same tables TaskRepository works on; statements name their columns, task has more than TaskRow maps
+@Repository
+public interface ReactiveTaskRepository extends R2dbcRepository<TaskRow, UUID>, ReactiveTaskFilterRepository {
+
+    // TaskRepository's write statements: each appends its outbox event in the same statement, and update and delete
+    // reach archived tasks the same way
+    @Query("""
+            WITH inserted AS (
+                INSERT INTO task (id, title, description, status, version)
+                VALUES (:id, :title, :description, :status, 0)
+                ON CONFLICT (title) DO NOTHING
+                RETURNING id, title, description, status, version
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'CREATED', jsonb_strip_nulls(jsonb_build_object('title', title, 'description', description, 'status', status)), version
+                FROM inserted
+            )
+            SELECT * FROM inserted""")
+    Mono<TaskRow> insertIfTitleAbsent(UUID id, String title, String description, String status);
+
+    @Query("""
+            WITH updated AS (
+                UPDATE task SET
+                    title = COALESCE(CAST(:title AS VARCHAR), title),
+                    description = COALESCE(CAST(:description AS VARCHAR), description),
+                    status = COALESCE(CAST(:status AS VARCHAR), status),
+                    version = version + 1
+                WHERE id = :id AND version = COALESCE(CAST(:version AS BIGINT), version)
+                RETURNING id, title, description, status, version
+            ), archived AS (
+                SELECT id, title, description, status, version,
+                       COALESCE(CAST(:title AS VARCHAR), title) AS new_title,
+                       COALESCE(CAST(:description AS VARCHAR), description) AS new_description,
+                       COALESCE(CAST(:status AS VARCHAR), status) AS new_status
+                FROM task_archive
+                WHERE id = :id AND version = COALESCE(CAST(:version AS BIGINT), version)
+            ), restored AS (
+                DELETE FROM task_archive USING archived
+                WHERE task_archive.id = archived.id
+                  AND (archived.new_title <> archived.title
+                       OR archived.new_description IS DISTINCT FROM archived.description
+                       OR archived.new_status <> archived.status)
+                RETURNING archived.id, archived.new_title, archived.new_description, archived.new_status, archived.version + 1
+            ), inserted AS (
+                INSERT INTO task (id, title, description, status, version)
+                SELECT * FROM restored
+                RETURNING id, title, description, status, version
+            ), changed AS (
+                SELECT * FROM updated UNION ALL SELECT * FROM inserted
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'UPDATED', jsonb_strip_nulls(jsonb_build_object(
+                        'title', CAST(:title AS VARCHAR),
+                        'description', CAST(:description AS VARCHAR),
+                        'status', CAST(:status AS VARCHAR))), version
+                FROM changed
+            )
+            SELECT * FROM changed
+            UNION ALL
+            SELECT id, title, description, status, version FROM archived WHERE NOT EXISTS (SELECT 1 FROM restored)""")
+    Mono<TaskRow> updateTaskFields(UUID id, String title, String description, String status, Long version);
+
+    @Query("""
+            WITH deleted AS (
+                DELETE FROM task WHERE id = :id
+                RETURNING id, version
+            ), deleted_archived AS (
+                DELETE FROM task_archive WHERE id = :id
+                RETURNING id, version
+            ), gone AS (
+                SELECT * FROM deleted UNION ALL SELECT * FROM deleted_archived
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'DELETED', jsonb_build_object(), version
+                FROM gone
+            )
+            SELECT count(*) FROM gone""")
+    Mono<Long> deleteTaskById(UUID id);
+
+    @Query("SELECT id, title, description, status, version FROM task ORDER BY id LIMIT :limit")
+    Flux<TaskRow> findFirstPage(int limit);
+
+    @Query("SELECT id, title, description, status, version FROM task WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<TaskRow> findPageAfter(UUID after, int limit);
+
+    Flux<TaskRow> findAllByOrderByIdAsc();
+
+    // only asked for ids the active table did not have
+    @Query("SELECT id, title, description, status, version FROM task_archive WHERE id = :id")
+    Mono<TaskRow> findArchivedById(UUID id);
+
+    @Query("SELECT status, count(*) AS count FROM task GROUP BY status")
+    Flux<TaskStatusCountDto> countByStatus();
+
+    @Query("SELECT status, count(*) AS count FROM task_archive GROUP BY status")
+    Flux<TaskStatusCountDto> countArchivedByStatus();
+
+    // TaskRepository.search: GIN-indexed matches, keyset on (rank desc, id)
+    @Query("""
+            SELECT id, title, description, status, version, rank
+            FROM (
+                SELECT t.id, t.title, t.description, t.status, t.version, ts_rank(t.search_vector, query) AS rank
+                FROM task t, websearch_to_tsquery('simple', :query) query
+                WHERE t.search_vector @@ query
+            ) hits
+            WHERE CAST(:afterRank AS REAL) IS NULL
+               OR rank < CAST(:afterRank AS REAL)
+               OR (rank = CAST(:afterRank AS REAL) AND id > CAST(:afterId AS UUID))
+            ORDER BY rank DESC, id
+            LIMIT :limit""")
+    Flux<TaskSearchRow> search(String query, Float afterRank, UUID afterId, int limit);
+}
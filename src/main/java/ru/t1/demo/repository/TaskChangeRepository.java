@@ -0,0 +1,35 @@
+package ru.t1.demo.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.t1.demo.entity.TaskChange;
+
+import java.util.List;
+
+public interface TaskChangeRepository extends JpaRepository<TaskChange, Long> {
+
+    long RELAY_LOCK_KEY = 0x7461736b5f6f7574L;
+
+    List<TaskChange> findByIdGreaterThanOrderByIdAsc(long since, Limit limit);
+
+    @Query("select max(c.id) from TaskChange c")
+    Long findLastOffset();
+
+    // serializes relays across instances so change ids follow the order batches were moved in
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+
+    @Modifying
+    @Query(value = """
+            WITH moved AS (
+                DELETE FROM task_outbox
+                WHERE id IN (SELECT id FROM task_outbox ORDER BY id LIMIT :batchSize)
+                RETURNING *
+            )
+            INSERT INTO task_change (task_id, type, changed_fields, version, created_at)
+            SELECT task_id, type, changed_fields, version, created_at FROM moved ORDER BY id""", nativeQuery = true)
+    int moveOutboxBatch(@Param("batchSize") int batchSize);
+}
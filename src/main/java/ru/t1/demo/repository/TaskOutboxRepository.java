@@ -0,0 +1,48 @@
+package ru.t1.demo.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.t1.demo.entity.TaskOutboxEvent;
+
+import java.util.Collection;
+
+// a plain JDBC batch: the identity id rules out Hibernate insert batching for the outbox
+@Profile("!reactive & !memory")
+@Repository
+public class TaskOutboxRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO task_outbox (task_id, type, changed_fields, version)
+            VALUES (?, ?, CAST(? AS jsonb), ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public TaskOutboxRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void appendAll(Collection<TaskOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+            statement.setObject(1, event.getTaskId());
+            statement.setString(2, event.getType().name());
+            statement.setString(3, toJson(event));
+            statement.setLong(4, event.getVersion());
+        });
+    }
+
+    private String toJson(TaskOutboxEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.getChangedFields());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
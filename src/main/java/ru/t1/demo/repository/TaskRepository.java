@@ -1,15 +1,254 @@
 package ru.t1.demo.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskSearchHit;
+import ru.t1.demo.dto.TaskStatusCountDto;
 import ru.t1.demo.entity.Task;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, UUID> {
 
     Optional<Task> findTaskByTitle(String title);
+
+    // empty when the title is taken: the unique index arbitrates concurrent creates in one round-trip.
+    // Each mutation below appends its outbox event in the same statement, so both commit or neither does
+    @Transactional
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO task (id, title, description, status, version)
+                VALUES (:id, :title, :description, :status, 0)
+                ON CONFLICT (title) DO NOTHING
+                RETURNING *
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'CREATED', jsonb_strip_nulls(jsonb_build_object('title', title, 'description', description, 'status', status)), version
+                FROM inserted
+            )
+            SELECT * FROM inserted""", nativeQuery = true)
+    Optional<Task> insertIfTitleAbsent(@Param("id") UUID id,
+                                       @Param("title") String title,
+                                       @Param("description") String description,
+                                       @Param("status") String status);
+
+    List<Task> findAllByTitleIn(Collection<String> titles);
+
+    // titles are unique across active and archived tasks
+    @Query("select t.title from Task t where t.title in :titles union select a.title from ArchivedTask a where a.title in :titles")
+    Set<String> findExistingTitles(@Param("titles") Collection<String> titles);
+
+    // null arguments keep the column, a null version skips the check. An archived task is restored by an update that
+    // changes it, otherwise it is returned as is
+    @Transactional
+    @Query(value = """
+            WITH updated AS (
+                UPDATE task SET
+                    title = COALESCE(CAST(:title AS VARCHAR), title),
+                    description = COALESCE(CAST(:description AS VARCHAR), description),
+                    status = COALESCE(CAST(:status AS VARCHAR), status),
+                    version = version + 1
+                WHERE id = :id AND version = COALESCE(CAST(:version AS BIGINT), version)
+                RETURNING id, title, description, status, version
+            ), archived AS (
+                SELECT id, title, description, status, version,
+                       COALESCE(CAST(:title AS VARCHAR), title) AS new_title,
+                       COALESCE(CAST(:description AS VARCHAR), description) AS new_description,
+                       COALESCE(CAST(:status AS VARCHAR), status) AS new_status
+                FROM task_archive
+                WHERE id = :id AND version = COALESCE(CAST(:version AS BIGINT), version)
+            ), restored AS (
+                DELETE FROM task_archive USING archived
+                WHERE task_archive.id = archived.id
+                  AND (archived.new_title <> archived.title
+                       OR archived.new_description IS DISTINCT FROM archived.description
+                       OR archived.new_status <> archived.status)
+                RETURNING archived.id, archived.new_title, archived.new_description, archived.new_status, archived.version + 1
+            ), inserted AS (
+                INSERT INTO task (id, title, description, status, version)
+                SELECT * FROM restored
+                RETURNING id, title, description, status, version
+            ), changed AS (
+                SELECT * FROM updated UNION ALL SELECT * FROM inserted
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'UPDATED', jsonb_strip_nulls(jsonb_build_object(
+                        'title', CAST(:title AS VARCHAR),
+                        'description', CAST(:description AS VARCHAR),
+                        'status', CAST(:status AS VARCHAR))), version
+                FROM changed
+            )
+            SELECT * FROM changed
+            UNION ALL
+            SELECT id, title, description, status, version FROM archived WHERE NOT EXISTS (SELECT 1 FROM restored)""",
+            nativeQuery = true)
+    Optional<Task> updateTaskFields(@Param("id") UUID id,
+                                    @Param("title") String title,
+                                    @Param("description") String description,
+                                    @Param("status") String status,
+                                    @Param("version") Long version);
+
+    // one statement per write-behind flush: ids[i] gets statuses[i], only real transitions bump the version, emit an
+    // event or restore an archived task; returns the updated ids
+    @Transactional
+    @Query(value = """
+            WITH v AS (
+                SELECT * FROM unnest(CAST(:ids AS UUID[]), CAST(:statuses AS VARCHAR[])) AS v(id, status)
+            ), updated AS (
+                UPDATE task SET
+                    status = v.status,
+                    version = task.version + 1
+                FROM v
+                WHERE task.id = v.id AND task.status <> v.status
+                RETURNING task.id, task.status, task.version
+            ), restored AS (
+                DELETE FROM task_archive USING v
+                WHERE task_archive.id = v.id AND task_archive.status <> v.status
+                RETURNING task_archive.id, task_archive.title, task_archive.description, v.status, task_archive.version + 1
+            ), inserted AS (
+                INSERT INTO task (id, title, description, status, version)
+                SELECT * FROM restored
+                RETURNING id, status, version
+            ), changed AS (
+                SELECT * FROM updated UNION ALL SELECT * FROM inserted
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'UPDATED', jsonb_build_object('status', status), version
+                FROM changed
+            )
+            SELECT id FROM changed""", nativeQuery = true)
+    List<UUID> updateStatuses(@Param("ids") UUID[] ids, @Param("statuses") String[] statuses);
+
+    // an archived task is deleted the same way, which frees its title
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM task WHERE id = :id
+                RETURNING id, version
+            ), deleted_archived AS (
+                DELETE FROM task_archive WHERE id = :id
+                RETURNING id, version
+            ), gone AS (
+                SELECT * FROM deleted UNION ALL SELECT * FROM deleted_archived
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'DELETED', jsonb_build_object(), version
+                FROM gone
+            )
+            SELECT count(*) FROM gone""", nativeQuery = true)
+    int deleteTaskById(@Param("id") UUID id);
+
+    // moves up to limit terminal tasks older than cutoff to task_archive without events; locked rows and titles are
+    // skipped, so archivers never wait or block writers
+    @Transactional
+    @Query(value = """
+            WITH candidates AS (
+                SELECT id, title FROM task
+                WHERE status IN ('COMPLETED', 'CANCELLED') AND status_changed_at < :cutoff
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ), locked AS (
+                SELECT id FROM candidates
+                WHERE pg_try_advisory_xact_lock(hashtext('task_title'), hashtext(title))
+            ), moved AS (
+                DELETE FROM task USING locked
+                WHERE task.id = locked.id
+                RETURNING task.id, task.title, task.description, task.status, task.version, task.status_changed_at
+            ), archived AS (
+                INSERT INTO task_archive (id, title, description, status, version, status_changed_at)
+                SELECT * FROM moved
+            )
+            SELECT id FROM moved""", nativeQuery = true)
+    List<UUID> archiveTerminal(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    // moves archived tasks among ids back to task, as just changed, ahead of a batch update in the same transaction;
+    // returns how many were archived
+    @Transactional
+    @Query(value = """
+            WITH restored AS (
+                DELETE FROM task_archive WHERE id = ANY(CAST(:ids AS UUID[]))
+                RETURNING id, title, description, status, version
+            ), inserted AS (
+                INSERT INTO task (id, title, description, status, version)
+                SELECT * FROM restored
+                RETURNING id
+            )
+            SELECT count(*) FROM inserted""", nativeQuery = true)
+    int restoreArchived(@Param("ids") UUID[] ids);
+
+    // batch deletes: the archived tasks among ids, with their outbox events; returns the deleted ids
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM task_archive WHERE id = ANY(CAST(:ids AS UUID[]))
+                RETURNING id, version
+            ), event AS (
+                INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                SELECT id, 'DELETED', jsonb_build_object(), version
+                FROM deleted
+            )
+            SELECT id FROM deleted""", nativeQuery = true)
+    List<UUID> deleteArchived(@Param("ids") UUID[] ids);
+
+    // Read paths select straight into TaskDto: no managed entities, snapshots or dirty checking for rows
+    // that are only mapped and serialized
+    @Query("select new ru.t1.demo.dto.TaskDto(t.id, t.title, t.description, t.status, t.version) from Task t where t.id = :id")
+    Optional<TaskDto> findDtoById(@Param("id") UUID id);
+
+    @Query("select new ru.t1.demo.dto.TaskDto(t.id, t.title, t.description, t.status, t.version) from Task t where t.id in :ids")
+    List<TaskDto> findDtosByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // only asked for ids the active table did not have
+    @Query("select new ru.t1.demo.dto.TaskDto(a.id, a.title, a.description, a.status, a.version) from ArchivedTask a where a.id in :ids")
+    List<TaskDto> findArchivedDtosByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select new ru.t1.demo.dto.TaskDto(t.id, t.title, t.description, t.status, t.version) from Task t order by t.id")
+    List<TaskDto> findAllByOrderByIdAsc(Limit limit);
+
+    @Query("select new ru.t1.demo.dto.TaskDto(t.id, t.title, t.description, t.status, t.version) from Task t where t.id > :id order by t.id")
+    List<TaskDto> findByIdGreaterThanOrderByIdAsc(@Param("id") UUID id, Limit limit);
+
+    @Query("select new ru.t1.demo.dto.TaskStatusCountDto(t.status, count(t)) from Task t group by t.status")
+    List<TaskStatusCountDto> countByStatus();
+
+    @Query("select new ru.t1.demo.dto.TaskStatusCountDto(a.status, count(a)) from ArchivedTask a group by a.status")
+    List<TaskStatusCountDto> countArchivedByStatus();
+
+    // matches come from the GIN index on search_vector; only they are ranked and sorted.
+    // The page continues after (afterRank, afterId) in (rank desc, id) order, from the top when both are null
+    @Query(value = """
+            SELECT id, title, description, status, version, rank
+            FROM (
+                SELECT t.id, t.title, t.description, t.status, t.version, ts_rank(t.search_vector, query) AS rank
+                FROM task t, websearch_to_tsquery('simple', :query) query
+                WHERE t.search_vector @@ query
+            ) hits
+            WHERE CAST(:afterRank AS REAL) IS NULL
+               OR rank < CAST(:afterRank AS REAL)
+               OR (rank = CAST(:afterRank AS REAL) AND id > CAST(:afterId AS UUID))
+            ORDER BY rank DESC, id
+            LIMIT :limit""", nativeQuery = true)
+    List<TaskSearchHit> search(@Param("query") String query,
+                               @Param("afterRank") Float afterRank,
+                               @Param("afterId") UUID afterId,
+                               @Param("limit") int limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.t1.demo.dto.TaskDto(t.id, t.title, t.description, t.status, t.version) from Task t order by t.id")
+    Stream<TaskDto> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,34 @@
+package ru.t1.demo.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> idAfter(UUID after) {
+        return (root, query, cb) -> after == null ? null : cb.greaterThan(root.get("id"), after);
+    }
+
+    public static Specification<Task> statusIn(Collection<TaskStatus> statuses) {
+        return (root, query, cb) -> statuses == null || statuses.isEmpty() ? null : root.get("status").in(statuses);
+    }
+
+    public static Specification<Task> titleStartsWith(String prefix) {
+        return (root, query, cb) -> prefix == null || prefix.isEmpty()
+                ? null
+                : cb.like(root.get("title"), escapeLike(prefix) + "%", '\\');
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
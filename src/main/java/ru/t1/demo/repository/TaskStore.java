@@ -0,0 +1,56 @@
+package ru.t1.demo.repository;
+
+import org.springframework.data.domain.Limit;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskSearchHit;
+import ru.t1.demo.dto.TaskStatusCountDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// what TaskService, TaskLookupCoalescer and TaskStatusWriteBehind need: JpaTaskStore or InMemoryTaskStore
+public interface TaskStore {
+
+    // empty when the title is taken
+    Optional<Task> insertIfTitleAbsent(UUID id, String title, String description, String status);
+
+    // null arguments keep the current value, a null version skips the version check; empty when no task has this id
+    // or its version differs
+    Optional<Task> updateTaskFields(UUID id, String title, String description, String status, Long version);
+
+    // ids[i] gets statuses[i]; unknown ids and tasks already in that status are skipped. Returns the updated ids
+    List<UUID> updateStatuses(UUID[] ids, String[] statuses);
+
+    // how many tasks were deleted, 0 or 1
+    int deleteTaskById(UUID id);
+
+    boolean existsById(UUID id);
+
+    Optional<TaskDto> findDtoById(UUID id);
+
+    List<TaskDto> findDtosByIdIn(Collection<UUID> ids);
+
+    List<TaskDto> findArchivedDtosByIdIn(Collection<UUID> ids);
+
+    List<TaskDto> findAllByOrderByIdAsc(Limit limit);
+
+    List<TaskDto> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
+
+    // keyset page of tasks in any of statuses whose title starts with titlePrefix; an empty filter matches every task
+    List<TaskDto> findFiltered(UUID after, Collection<TaskStatus> statuses, String titlePrefix, Limit limit);
+
+    List<TaskStatusCountDto> countByStatus();
+
+    List<TaskStatusCountDto> countArchivedByStatus();
+
+    // ranked matches, continuing after (afterRank, afterId) in (rank desc, id) order, from the top when both are null
+    List<TaskSearchHit> search(String query, Float afterRank, UUID afterId, int limit);
+
+    // every task in id order; the caller closes the stream
+    Stream<TaskDto> streamAllByOrderByIdAsc();
+}
@@ -0,0 +1,218 @@
+package ru.t1.demo.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataAccessResourceFailureException;
+import ru.t1.demo.dto.TaskDto;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// InMemoryTaskStore write-ahead journal: one JSON line per write before it is visible, snapshots roll it over;
+// recovery is the newest snapshot plus the journals after it. fsync forces each append to disk
+final class TaskStoreJournal implements Closeable {
+
+    private static final String JOURNAL = "journal-";
+    private static final String SNAPSHOT = "snapshot-";
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private FileChannel journal;
+    private long generation;
+    private boolean appended;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(TaskDto task, UUID deleted) {
+    }
+
+    TaskStoreJournal(Path directory, ObjectMapper objectMapper, boolean fsync) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+    }
+
+    // the state as of the last append; appends continue in a fresh journal, so a line torn by a crash stays last in its file
+    Map<UUID, TaskDto> recover() throws IOException {
+        Files.createDirectories(directory);
+        Map<UUID, TaskDto> tasks = new HashMap<>();
+
+        OptionalLong snapshot = generations(SNAPSHOT).stream().mapToLong(Long::longValue).max();
+        long from = snapshot.orElse(0);
+        if (snapshot.isPresent()) {
+            try (BufferedReader reader = Files.newBufferedReader(file(SNAPSHOT, from))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    TaskDto task = objectMapper.readValue(line, TaskDto.class);
+                    tasks.put(task.id(), task);
+                }
+            }
+        }
+
+        long last = from;
+        for (long journalGeneration : generations(JOURNAL)) {
+            if (journalGeneration >= from) {
+                replay(file(JOURNAL, journalGeneration), tasks);
+                last = Math.max(last, journalGeneration);
+            }
+        }
+
+        generation = last + 1;
+        journal = open(generation);
+        return tasks;
+    }
+
+    void append(UUID id, TaskDto task) {
+        byte[] line;
+        try {
+            line = objectMapper.writeValueAsBytes(task == null ? new Entry(null, id) : new Entry(task, null));
+        } catch (JsonProcessingException e) {
+            throw new DataAccessResourceFailureException("Could not serialize task " + id, e);
+        }
+
+        appendLock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (fsync) {
+                journal.force(false);
+            }
+            appended = true;
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not append to the task journal in " + directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // no appends may be in flight: InMemoryTaskStore holds every write lock while this runs.
+    // Returns the generation a snapshot taken from now on covers, or -1 when nothing was written since the last one
+    long rotate() throws IOException {
+        appendLock.lock();
+        try {
+            if (!appended) {
+                return -1;
+            }
+            FileChannel next = open(generation + 1);
+            journal.force(false);
+            journal.close();
+            journal = next;
+            generation++;
+            appended = false;
+            return generation;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    void snapshot(long snapshotGeneration, Collection<TaskDto> tasks) throws IOException {
+        snapshotLock.lock();
+        try {
+            Path temporary = directory.resolve(SNAPSHOT + snapshotGeneration + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                for (TaskDto task : tasks) {
+                    writer.write(objectMapper.writeValueAsString(task));
+                    writer.newLine();
+                }
+                writer.flush();
+                channel.force(false);
+            }
+            Files.move(temporary, file(SNAPSHOT, snapshotGeneration), StandardCopyOption.ATOMIC_MOVE);
+
+            for (long older : generations(SNAPSHOT)) {
+                if (older < snapshotGeneration) {
+                    Files.deleteIfExists(file(SNAPSHOT, older));
+                }
+            }
+            for (long older : generations(JOURNAL)) {
+                if (older < snapshotGeneration) {
+                    Files.deleteIfExists(file(JOURNAL, older));
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (journal != null) {
+                journal.force(false);
+                journal.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void replay(Path path, Map<UUID, TaskDto> tasks) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                Entry entry;
+                try {
+                    entry = objectMapper.readValue(line, Entry.class);
+                } catch (JsonProcessingException e) {
+                    // the append a crash cut short; it was never acknowledged
+                    if (reader.readLine() == null) {
+                        return;
+                    }
+                    throw e;
+                }
+                if (entry.task() != null) {
+                    tasks.put(entry.task().id(), entry.task());
+                } else {
+                    tasks.remove(entry.deleted());
+                }
+            }
+        }
+    }
+
+    private FileChannel open(long journalGeneration) throws IOException {
+        return FileChannel.open(file(JOURNAL, journalGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path file(String prefix, long fileGeneration) {
+        return directory.resolve(prefix + fileGeneration + SUFFIX);
+    }
+
+    private List<Long> generations(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(SUFFIX))
+                    .map(name -> name.substring(prefix.length(), name.length() - SUFFIX.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.t1.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskPageDto;
+import ru.t1.demo.dto.TaskSearchPageDto;
+import ru.t1.demo.dto.TaskStatsDto;
+import ru.t1.demo.entity.TaskIdStrategy;
+import ru.t1.demo.entity.TaskRow;
+import ru.t1.demo.entity.TaskSearchRow;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskIsPresentException;
+import ru.t1.demo.exception.TaskNotFoundException;
+import ru.t1.demo.exception.TaskSearchException;
+import ru.t1.demo.exception.TaskVersionMismatchException;
+import ru.t1.demo.repository.ReactiveTaskRepository;
+import ru.t1.demo.util.TaskConstraints;
+import ru.t1.demo.util.TaskMapper;
+import ru.t1.demo.util.TaskSearchCursor;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Profile("reactive")
+@Service
+public class ReactiveTaskService {
+    private final ReactiveTaskRepository taskRepository;
+    private final TaskIdStrategy idStrategy;
+
+    public ReactiveTaskService(ReactiveTaskRepository taskRepository,
+                               @Value("${" + TaskIdStrategy.PROPERTY + ":TIME_ORDERED}") TaskIdStrategy idStrategy) {
+        this.taskRepository = taskRepository;
+        this.idStrategy = idStrategy;
+    }
+
+    public Mono<TaskPageDto> getAllTasks(UUID after, Integer limit) {
+        return getAllTasks(after, limit, null, null);
+    }
+
+    public Mono<TaskPageDto> getAllTasks(UUID after, Integer limit, Collection<TaskStatus> statuses, String titlePrefix) {
+        int pageSize = TaskService.pageSize(limit);
+
+        Flux<TaskRow> rows;
+        if ((statuses == null || statuses.isEmpty()) && (titlePrefix == null || titlePrefix.isEmpty())) {
+            rows = after == null
+                    ? taskRepository.findFirstPage(pageSize + 1)
+                    : taskRepository.findPageAfter(after, pageSize + 1);
+        } else {
+            rows = taskRepository.findFiltered(after, statuses, titlePrefix, pageSize + 1);
+        }
+
+        return rows.map(TaskMapper::toDto)
+                .collectList()
+                .map(tasks -> {
+                    List<TaskDto> items = tasks.size() > pageSize ? tasks.subList(0, pageSize) : tasks;
+                    UUID next = tasks.size() > pageSize ? items.get(items.size() - 1).id() : null;
+                    return new TaskPageDto(items, next);
+                });
+    }
+
+    public Mono<TaskSearchPageDto> searchTasks(String query, String after, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return Mono.error(new TaskSearchException("Search query must not be blank"));
+        }
+        int pageSize = TaskService.pageSize(limit);
+
+        return Mono.defer(() -> {
+            TaskSearchCursor cursor = after == null ? null : TaskSearchCursor.parse(after);
+            Flux<TaskSearchRow> hits = cursor == null
+                    ? taskRepository.search(query, null, null, pageSize + 1)
+                    : taskRepository.search(query, cursor.rank(), cursor.id(), pageSize + 1);
+
+            return hits.collectList().map(found -> {
+                List<TaskDto> items = found.stream()
+                        .limit(pageSize)
+                        .map(TaskMapper::toDto)
+                        .toList();
+                String next = null;
+                if (found.size() > pageSize) {
+                    TaskSearchRow last = found.get(pageSize - 1);
+                    next = new TaskSearchCursor(last.rank(), last.id()).toString();
+                }
+                return new TaskSearchPageDto(items, next);
+            });
+        });
+    }
+
+    public Mono<TaskStatsDto> getTaskStats() {
+        return Flux.concat(taskRepository.countByStatus(), taskRepository.countArchivedByStatus())
+                .collect(() -> {
+                    Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+                    for (TaskStatus status : TaskStatus.values()) {
+                        byStatus.put(status, 0L);
+                    }
+                    return byStatus;
+                }, (byStatus, count) -> byStatus.merge(count.status(), count.count(), Long::sum))
+                .map(byStatus -> new TaskStatsDto(byStatus.values().stream().mapToLong(Long::longValue).sum(), byStatus));
+    }
+
+    public Flux<TaskDto> streamAllTasks() {
+        return taskRepository.findAllByOrderByIdAsc()
+                .map(TaskMapper::toDto);
+    }
+
+    public Mono<TaskDto> getTaskById(UUID id) {
+        return findRow(id).map(TaskMapper::toDto);
+    }
+
+    public Mono<TaskDto> saveTask(TaskDto dto) {
+        String status = dto.status() == null ? null : dto.status().name();
+
+        return taskRepository.insertIfTitleAbsent(idStrategy.next(), dto.title(), dto.description(), status)
+                // the title belongs to an archived task, or a required column is missing
+                .onErrorMap(DataIntegrityViolationException.class, TaskConstraints::translate)
+                .switchIfEmpty(Mono.error(() -> new TaskIsPresentException("Task is already present")))
+                .map(TaskMapper::toDto);
+    }
+
+    public Mono<Void> deleteTaskById(UUID id) {
+        return taskRepository.deleteTaskById(id)
+                .filter(deleted -> deleted > 0)
+                .switchIfEmpty(Mono.error(() -> new TaskNotFoundException("Task with id" + id + " not found")))
+                .then();
+    }
+
+    public Mono<TaskDto> updateTask(UUID id, TaskDto updateTaskRequest, Long expectedVersion) {
+        String status = updateTaskRequest.status() == null ? null : updateTaskRequest.status().name();
+
+        Mono<TaskRow> missing = expectedVersion == null
+                ? Mono.empty()
+                : taskRepository.existsById(id)
+                        .flatMap(exists -> exists ? Mono.just(true) : taskRepository.findArchivedById(id).hasElement())
+                        .filter(Boolean::booleanValue)
+                        .flatMap(exists -> Mono.error(new TaskVersionMismatchException("Task with id " + id + " was modified")));
+
+        return taskRepository.updateTaskFields(id, updateTaskRequest.title(), updateTaskRequest.description(), status, expectedVersion)
+                .onErrorMap(DataIntegrityViolationException.class, TaskConstraints::translate)
+                .switchIfEmpty(missing)
+                .switchIfEmpty(Mono.error(() -> new TaskNotFoundException("Task with id" + id + " not found")))
+                .map(TaskMapper::toDto);
+    }
+
+    private Mono<TaskRow> findRow(UUID id) {
+        return taskRepository.findById(id)
+                .switchIfEmpty(taskRepository.findArchivedById(id))
+                .switchIfEmpty(Mono.error(() -> new TaskNotFoundException("Task with id" + id + " not found")));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.t1.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.t1.demo.repository.TaskRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// moves COMPLETED/CANCELLED tasks unchanged for max-age to task_archive; reads by id, stats and exports still see them
+@ConditionalOnProperty(name = "tasks.archive.enabled", havingValue = "true", matchIfMissing = true)
+@Profile("!reactive & !memory")
+@Component
+public class TaskArchiver {
+    private final TaskRepository taskRepository;
+    private final TaskSecondLevelCache taskSecondLevelCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxAge;
+    private final int batchSize;
+
+    private final Counter archivedTasks;
+
+    public TaskArchiver(TaskRepository taskRepository,
+                        TaskSecondLevelCache taskSecondLevelCache,
+                        TransactionTemplate transactionTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${tasks.archive.max-age:30d}") Duration maxAge,
+                        @Value("${tasks.archive.batch-size:1000}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.taskSecondLevelCache = taskSecondLevelCache;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+
+        this.archivedTasks = Counter.builder("tasks.archive.moved")
+                .description("Terminal tasks moved to the archive")
+                .register(meterRegistry);
+    }
+
+    // full batches mean there is more to move; rows other transactions hold are left for the next run
+    @Scheduled(fixedDelayString = "${tasks.archive.interval-ms:60000}")
+    public void archive() {
+        Instant cutoff = Instant.now().minus(maxAge);
+        List<UUID> moved;
+        do {
+            moved = transactionTemplate.execute(status -> taskRepository.archiveTerminal(cutoff, batchSize));
+            // the archived rows are no longer Task entities
+            taskSecondLevelCache.evictAll(moved);
+            archivedTasks.increment(moved.size());
+        } while (moved.size() == batchSize);
+    }
+}
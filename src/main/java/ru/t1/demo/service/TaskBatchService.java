@@ -0,0 +1,311 @@
+package ru.t1.demo.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.t1.demo.dto.BatchItemStatus;
+import ru.t1.demo.dto.TaskBatchResultDto;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskChangeType;
+import ru.t1.demo.entity.TaskOutboxEvent;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.repository.TaskOutboxRepository;
+import ru.t1.demo.repository.TaskRepository;
+import ru.t1.demo.util.TaskMapper;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Timed(value = "tasks.service", histogram = true)
+@Profile("!reactive & !memory")
+@Service
+public class TaskBatchService {
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskOutboxRepository taskOutboxRepository;
+    private final TaskCacheService taskCacheService;
+    private final int chunkSize;
+
+    public TaskBatchService(TaskRepository taskRepository,
+                            EntityManager entityManager,
+                            TransactionTemplate transactionTemplate,
+                            TaskOutboxRepository taskOutboxRepository,
+                            TaskCacheService taskCacheService,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int chunkSize) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.taskOutboxRepository = taskOutboxRepository;
+        this.taskCacheService = taskCacheService;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<TaskBatchResultDto> saveTasks(List<TaskDto> dtos) {
+        TaskBatchResultDto[] results = new TaskBatchResultDto[dtos.size()];
+        Set<String> requestTitles = new HashSet<>();
+
+        for (int from = 0; from < dtos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, dtos.size());
+            saveChunk(dtos, from, to, requestTitles, results);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    public List<TaskBatchResultDto> updateTasks(List<TaskDto> dtos) {
+        TaskBatchResultDto[] results = new TaskBatchResultDto[dtos.size()];
+
+        for (int from = 0; from < dtos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, dtos.size());
+            updateChunk(dtos, from, to, results);
+        }
+
+        taskCacheService.evictAll(writtenIds(results));
+
+        return Arrays.asList(results);
+    }
+
+    public List<TaskBatchResultDto> deleteTasks(List<UUID> ids) {
+        TaskBatchResultDto[] results = new TaskBatchResultDto[ids.size()];
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, ids.size());
+            deleteChunk(ids, from, to, results);
+        }
+
+        taskCacheService.evictAll(writtenIds(results));
+
+        return Arrays.asList(results);
+    }
+
+    private void saveChunk(List<TaskDto> dtos, int from, int to, Set<String> requestTitles, TaskBatchResultDto[] results) {
+        List<TaskDto> chunk = dtos.subList(from, to);
+        Set<String> titles = chunk.stream()
+                .map(TaskDto::title)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        // titles this chunk creates only count against later chunks once it has committed
+        Set<String> chunkTitles = new HashSet<>();
+        boolean committed = runChunk(from, to, results, () -> {
+            Set<String> existingTitles = taskRepository.findExistingTitles(titles);
+            Map<Integer, Task> pending = new LinkedHashMap<>();
+
+            for (int i = from; i < to; i++) {
+                TaskDto dto = dtos.get(i);
+                if (dto.title() == null || dto.status() == null) {
+                    results[i] = TaskBatchResultDto.failed(i, null, BatchItemStatus.INVALID, "Title and status are required");
+                } else if (existingTitles.contains(dto.title()) || requestTitles.contains(dto.title())
+                        || !chunkTitles.add(dto.title())) {
+                    results[i] = TaskBatchResultDto.failed(i, null, BatchItemStatus.CONFLICT, "Task is already present");
+                } else {
+                    pending.put(i, TaskMapper.toEntity(dto));
+                }
+            }
+
+            taskRepository.saveAll(pending.values());
+            entityManager.flush();
+            taskOutboxRepository.appendAll(pending.values().stream()
+                    .map(task -> outboxEvent(task, TaskChangeType.CREATED, changedFields(task.getTitle(), task.getDescription(), task.getStatus())))
+                    .toList());
+
+            pending.forEach((i, task) -> results[i] = TaskBatchResultDto.of(i, task.getId(), BatchItemStatus.CREATED));
+        });
+        if (committed) {
+            requestTitles.addAll(chunkTitles);
+        }
+    }
+
+    private void updateChunk(List<TaskDto> dtos, int from, int to, TaskBatchResultDto[] results) {
+        List<TaskDto> chunk = dtos.subList(from, to);
+        Set<UUID> ids = chunk.stream()
+                .map(TaskDto::id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> titles = chunk.stream()
+                .map(TaskDto::title)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        runChunk(from, to, results, () -> {
+            // archived tasks the chunk changes move back to the active table in its transaction, as the single-task
+            // update does; the ones it leaves as they are stay archived
+            Map<UUID, TaskDto> archived = taskRepository.findArchivedDtosByIdIn(ids).stream()
+                    .collect(Collectors.toMap(TaskDto::id, Function.identity()));
+            UUID[] restored = chunk.stream()
+                    .filter(dto -> dto.id() != null && archived.containsKey(dto.id()) && changes(dto, archived.get(dto.id())))
+                    .map(TaskDto::id)
+                    .distinct()
+                    .toArray(UUID[]::new);
+            if (restored.length > 0) {
+                taskRepository.restoreArchived(restored);
+            }
+
+            Map<UUID, Task> tasksById = findTasks(ids).stream()
+                    .collect(Collectors.toMap(Task::getId, Function.identity()));
+            Map<String, UUID> titleOwners = taskRepository.findAllByTitleIn(titles).stream()
+                    .collect(Collectors.toMap(Task::getTitle, Task::getId));
+            Map<Integer, Task> updated = new LinkedHashMap<>();
+
+            for (int i = from; i < to; i++) {
+                TaskDto dto = dtos.get(i);
+                Task task = dto.id() == null ? null : tasksById.get(dto.id());
+
+                if (task == null && archived.containsKey(dto.id())) {
+                    results[i] = TaskBatchResultDto.of(i, dto.id(), BatchItemStatus.UPDATED);
+                    continue;
+                }
+                if (task == null) {
+                    results[i] = TaskBatchResultDto.failed(i, dto.id(), BatchItemStatus.NOT_FOUND, "Task with id" + dto.id() + " not found");
+                    continue;
+                }
+
+                if (dto.title() != null && !Objects.equals(dto.title(), task.getTitle())) {
+                    UUID owner = titleOwners.putIfAbsent(dto.title(), task.getId());
+                    if (owner != null && !owner.equals(task.getId())) {
+                        results[i] = TaskBatchResultDto.failed(i, dto.id(), BatchItemStatus.CONFLICT, "Task is already present");
+                        continue;
+                    }
+                    titleOwners.remove(task.getTitle());
+                    task.setTitle(dto.title());
+                }
+
+                if (dto.description() != null) {
+                    task.setDescription(dto.description());
+                }
+
+                if (dto.status() != null) {
+                    task.setStatus(dto.status());
+                }
+
+                updated.put(i, task);
+            }
+
+            entityManager.flush();
+            taskOutboxRepository.appendAll(updated.entrySet().stream()
+                    .map(entry -> {
+                        TaskDto dto = dtos.get(entry.getKey());
+                        return outboxEvent(entry.getValue(), TaskChangeType.UPDATED, changedFields(dto.title(), dto.description(), dto.status()));
+                    })
+                    .toList());
+
+            updated.forEach((i, task) -> results[i] = TaskBatchResultDto.of(i, task.getId(), BatchItemStatus.UPDATED));
+        });
+    }
+
+    private void deleteChunk(List<UUID> ids, int from, int to, TaskBatchResultDto[] results) {
+        Set<UUID> chunkIds = ids.subList(from, to).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        runChunk(from, to, results, () -> {
+            List<Task> existing = findTasks(chunkIds);
+            Set<UUID> existingIds = existing.stream()
+                    .map(Task::getId)
+                    .collect(Collectors.toSet());
+
+            taskOutboxRepository.appendAll(existing.stream()
+                    .map(task -> outboxEvent(task, TaskChangeType.DELETED, Map.of()))
+                    .toList());
+            taskRepository.deleteAllByIdInBatch(existingIds);
+
+            // the rest may be archived; deleting those frees their titles and appends their events in one statement
+            Set<UUID> deletedIds = new HashSet<>(existingIds);
+            UUID[] missing = chunkIds.stream()
+                    .filter(id -> !existingIds.contains(id))
+                    .toArray(UUID[]::new);
+            if (missing.length > 0) {
+                deletedIds.addAll(taskRepository.deleteArchived(missing));
+            }
+
+            for (int i = from; i < to; i++) {
+                UUID id = ids.get(i);
+                results[i] = deletedIds.contains(id)
+                        ? TaskBatchResultDto.of(i, id, BatchItemStatus.DELETED)
+                        : TaskBatchResultDto.failed(i, id, BatchItemStatus.NOT_FOUND, "Task with id" + id + " not found");
+            }
+        });
+    }
+
+    // by id through the session rather than one IN query: tasks in the second-level cache are not selected again
+    private List<Task> findTasks(Collection<UUID> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Task.class)
+                .with(CacheMode.NORMAL)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(ids));
+    }
+
+    // true once the chunk has committed
+    private boolean runChunk(int from, int to, TaskBatchResultDto[] results, Runnable chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> chunk.run());
+            return true;
+        } catch (DataAccessException | PersistenceException e) {
+            // the chunk was rolled back, so none of its writes went through
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (int i = from; i < to; i++) {
+                if (results[i] == null || isWritten(results[i].status())) {
+                    UUID id = results[i] == null ? null : results[i].id();
+                    results[i] = TaskBatchResultDto.failed(i, id, BatchItemStatus.FAILED, message);
+                }
+            }
+            return false;
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    // whether the update would leave the task any different; an unchanged archived task stays archived
+    private static boolean changes(TaskDto update, TaskDto task) {
+        return update.title() != null && !update.title().equals(task.title())
+                || update.description() != null && !update.description().equals(task.description())
+                || update.status() != null && update.status() != task.status();
+    }
+
+    private static TaskOutboxEvent outboxEvent(Task task, TaskChangeType type, Map<String, Object> changedFields) {
+        return TaskOutboxEvent.builder()
+                .taskId(task.getId())
+                .type(type)
+                .changedFields(changedFields)
+                .version(task.getVersion())
+                .build();
+    }
+
+    // same shape as the single-task statements: only the fields the request set
+    private static Map<String, Object> changedFields(String title, String description, TaskStatus status) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (title != null) {
+            fields.put("title", title);
+        }
+        if (description != null) {
+            fields.put("description", description);
+        }
+        if (status != null) {
+            fields.put("status", status.name());
+        }
+        return fields;
+    }
+
+    private static List<UUID> writtenIds(TaskBatchResultDto[] results) {
+        return Arrays.stream(results)
+                .filter(result -> isWritten(result.status()))
+                .map(TaskBatchResultDto::id)
+                .toList();
+    }
+
+    private static boolean isWritten(BatchItemStatus status) {
+        return status == BatchItemStatus.CREATED || status == BatchItemStatus.UPDATED || status == BatchItemStatus.DELETED;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.t1.demo.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import ru.t1.demo.config.CacheConfig;
+import ru.t1.demo.dto.CacheStatsDto;
+import ru.t1.demo.dto.TaskDto;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+@Service
+public class TaskCacheService {
+    private static final int STRIPES = 256;
+
+    private final Cache cache;
+    // evictions so far per key stripe, to tell whether a load overlapped one
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    public TaskCacheService(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfig.TASKS_CACHE);
+    }
+
+    public TaskDto get(UUID id, Function<UUID, TaskDto> loader) {
+        TaskDto cached = cache.get(id, TaskDto.class);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(id);
+        long before = invalidations.get(stripe);
+        TaskDto task = loader.apply(id);
+        cache.put(id, task);
+        // a write committed while this load ran and may have evicted before the put: the row read can be older
+        if (invalidations.get(stripe) != before) {
+            cache.evict(id);
+        }
+        return task;
+    }
+
+    public void put(TaskDto task) {
+        cache.put(task.id(), task);
+    }
+
+    public void evict(UUID id) {
+        invalidations.incrementAndGet(stripe(id));
+        cache.evict(id);
+    }
+
+    public void evictAll(Collection<UUID> ids) {
+        ids.forEach(this::evict);
+    }
+
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            invalidations.incrementAndGet(i);
+        }
+        cache.clear();
+    }
+
+    public CacheStatsDto getStats() {
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+
+        return CacheStatsDto.builder()
+                .size(nativeCache.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .build();
+    }
+
+    private static int stripe(UUID id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+}
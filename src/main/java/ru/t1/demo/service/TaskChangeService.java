@@ -0,0 +1,75 @@
+package ru.t1.demo.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import ru.t1.demo.dto.TaskChangeDto;
+import ru.t1.demo.repository.TaskChangeRepository;
+import ru.t1.demo.util.TaskMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Profile("!reactive & !memory")
+@Service
+public class TaskChangeService {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final TaskChangeRepository taskChangeRepository;
+    private final Executor taskExecutor;
+    private final Duration longPollTimeout;
+
+    private final AtomicLong lastOffset = new AtomicLong();
+    // completed and replaced every time the feed grows; waiters hold no thread and no connection
+    private final AtomicReference<CompletableFuture<Void>> nextChange = new AtomicReference<>(new CompletableFuture<>());
+
+    public TaskChangeService(TaskChangeRepository taskChangeRepository,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor,
+                             @Value("${tasks.changes.long-poll-timeout:30s}") Duration longPollTimeout) {
+        this.taskChangeRepository = taskChangeRepository;
+        this.taskExecutor = taskExecutor;
+        this.longPollTimeout = longPollTimeout;
+    }
+
+    public List<TaskChangeDto> getChanges(long since, Integer limit) {
+        int batchSize = limit == null ? DEFAULT_BATCH_SIZE : Math.min(Math.max(limit, 1), MAX_BATCH_SIZE);
+
+        return taskChangeRepository.findByIdGreaterThanOrderByIdAsc(since, Limit.of(batchSize)).stream()
+                .map(TaskMapper::toDto)
+                .toList();
+    }
+
+    // completes right away when changes after `since` exist, otherwise with the next relayed batch
+    // or an empty list once the long-poll timeout passes
+    public CompletableFuture<List<TaskChangeDto>> awaitChanges(long since, Integer limit) {
+        // taken before the read so a batch relayed in between still wakes this caller
+        CompletableFuture<Void> signal = nextChange.get();
+
+        List<TaskChangeDto> changes = getChanges(since, limit);
+        if (!changes.isEmpty()) {
+            return CompletableFuture.completedFuture(changes);
+        }
+
+        return signal.thenApplyAsync(ignored -> getChanges(since, limit), taskExecutor)
+                .completeOnTimeout(List.of(), longPollTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void publish(Long offset) {
+        if (offset == null || offset <= lastOffset.getAndAccumulate(offset, Math::max)) {
+            return;
+        }
+
+        CompletableFuture<Void> signal = nextChange.getAndSet(new CompletableFuture<>());
+        // waking the waiters queues their reads on the bounded executor, which must not stall the relay
+        Thread.ofVirtual().start(() -> signal.complete(null));
+    }
+}
@@ -0,0 +1,204 @@
+package ru.t1.demo.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.t1.demo.dto.TaskConflictPolicy;
+import ru.t1.demo.dto.TaskCopyFormat;
+import ru.t1.demo.dto.TaskImportResultDto;
+import ru.t1.demo.entity.TaskIdStrategy;
+import ru.t1.demo.exception.TaskImportException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Rows go between the client stream and PostgreSQL COPY as bytes; nothing is decoded into entities or DTOs.
+// CSV uses the export layout (id,title,description,status,version with a header line), NDJSON one task object per line.
+@Profile("!reactive & !memory")
+@Service
+public class TaskCopyService {
+    // a quote and delimiter that JSON never contains unescaped, so COPY passes each line through untouched
+    private static final String RAW_LINES = "FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02'";
+
+    // archived tasks included; both primary keys are merged in id order rather than sorted
+    private static final String EXPORT_COLUMNS = """
+            SELECT id, title, description, status, version FROM task
+            UNION ALL
+            SELECT id, title, description, status, version FROM task_archive
+            ORDER BY id""";
+
+    // the same bits as UuidV7 minus the per-millisecond counter
+    private static final String TIME_ORDERED_ID = """
+            CAST(encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid())
+                placing substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                FROM 1 FOR 6), 52, 1), 53, 1), 'hex') AS uuid)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskCacheService taskCacheService;
+    private final TaskSecondLevelCache taskSecondLevelCache;
+    private final TaskIdStrategy idStrategy;
+
+    public TaskCopyService(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           TaskCacheService taskCacheService,
+                           TaskSecondLevelCache taskSecondLevelCache,
+                           @Value("${" + TaskIdStrategy.PROPERTY + ":TIME_ORDERED}") TaskIdStrategy idStrategy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskCacheService = taskCacheService;
+        this.taskSecondLevelCache = taskSecondLevelCache;
+        this.idStrategy = idStrategy;
+    }
+
+    public long exportTasks(TaskCopyFormat format, OutputStream out) {
+        String sql = switch (format) {
+            case CSV -> "COPY (" + EXPORT_COLUMNS + ") TO STDOUT WITH (FORMAT csv, HEADER true)";
+            case NDJSON -> "COPY (SELECT row_to_json(t) FROM (" + EXPORT_COLUMNS + ") t) TO STDOUT WITH (" + RAW_LINES + ")";
+        };
+
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copy(() -> copyManager(connection).copyOut(sql, out)));
+    }
+
+    public TaskImportResultDto importTasks(TaskCopyFormat format, TaskConflictPolicy conflictPolicy, InputStream in) {
+        long started = System.nanoTime();
+
+        long[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(stagingTable(format));
+                }
+                copy(() -> copyManager(connection).copyIn(copyIn(format), in));
+
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(merge(format, conflictPolicy))) {
+                    resultSet.next();
+                    return new long[]{resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3)};
+                }
+            }));
+        } catch (DataAccessException e) {
+            throw new TaskImportException(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+
+        if (counts[2] > 0) {
+            taskCacheService.clear();
+        }
+        if (counts[1] + counts[2] > 0) {
+            taskSecondLevelCache.clear();
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+        return TaskImportResultDto.builder()
+                .rows(counts[0])
+                .created(counts[1])
+                .updated(counts[2])
+                .skipped(counts[0] - counts[1] - counts[2])
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(counts[0] * 1_000_000_000.0 / elapsedNanos)
+                .build();
+    }
+
+    private static String stagingTable(TaskCopyFormat format) {
+        String columns = switch (format) {
+            case CSV -> "id UUID, title TEXT, description TEXT, status TEXT, version BIGINT";
+            case NDJSON -> "line TEXT";
+        };
+        return "CREATE TEMP TABLE task_import (ordinal BIGSERIAL, " + columns + ") ON COMMIT DROP";
+    }
+
+    private static String copyIn(TaskCopyFormat format) {
+        return switch (format) {
+            case CSV -> "COPY task_import (id, title, description, status, version) FROM STDIN WITH (FORMAT csv, HEADER true)";
+            case NDJSON -> "COPY task_import (line) FROM STDIN WITH (" + RAW_LINES + ")";
+        };
+    }
+
+    // one statement: dedupe by title (last row wins), upsert, append outbox events, count outcomes; an id taken
+    // by another title gets a fresh one
+    private String merge(TaskCopyFormat format, TaskConflictPolicy conflictPolicy) {
+        String source = switch (format) {
+            case CSV -> "SELECT ordinal, id, title, description, status FROM task_import";
+            case NDJSON -> """
+                    SELECT ordinal, CAST(doc ->> 'id' AS UUID) AS id, doc ->> 'title' AS title,
+                           doc ->> 'description' AS description, doc ->> 'status' AS status
+                    FROM (SELECT ordinal, CAST(line AS JSONB) AS doc FROM task_import WHERE line IS NOT NULL) lines""";
+        };
+        String onConflict = switch (conflictPolicy) {
+            case SKIP -> "ON CONFLICT DO NOTHING";
+            case OVERWRITE -> """
+                    ON CONFLICT (title) DO UPDATE SET
+                        description = EXCLUDED.description,
+                        status = EXCLUDED.status,
+                        version = task.version + 1""";
+        };
+        String newId = switch (idStrategy) {
+            case RANDOM -> "gen_random_uuid()";
+            case TIME_ORDERED -> TIME_ORDERED_ID;
+        };
+
+        return """
+                WITH imported AS (
+                    %3$s
+                ), latest AS (
+                    SELECT DISTINCT ON (title) ordinal, id, title, description, status
+                    FROM imported
+                    ORDER BY title, ordinal DESC
+                ), ranked AS (
+                    SELECT *, row_number() OVER (PARTITION BY id ORDER BY ordinal DESC) AS id_rank FROM latest
+                ), source AS (
+                    SELECT CASE
+                               WHEN id IS NULL OR id_rank > 1
+                                   OR EXISTS (SELECT 1 FROM task t WHERE t.id = ranked.id AND t.title <> ranked.title)
+                                   OR EXISTS (SELECT 1 FROM task_archive a WHERE a.id = ranked.id AND a.title <> ranked.title)
+                               THEN %1$s
+                               ELSE id
+                           END AS id, title, description, status
+                    FROM ranked
+                ), written AS (
+                    INSERT INTO task (id, title, description, status, version)
+                    SELECT id, title, description, status, 0 FROM source
+                    -- archived titles stay taken: such rows count as skipped
+                    WHERE NOT EXISTS (SELECT 1 FROM task_archive a WHERE a.title = source.title)
+                    %2$s
+                    RETURNING id, title, description, status, version, xmax = 0 AS created
+                ), event AS (
+                    INSERT INTO task_outbox (task_id, type, changed_fields, version)
+                    SELECT id, CASE WHEN created THEN 'CREATED' ELSE 'UPDATED' END,
+                           jsonb_strip_nulls(jsonb_build_object('title', title, 'description', description, 'status', status)), version
+                    FROM written
+                )
+                SELECT (SELECT count(*) FROM imported), count(*) FILTER (WHERE created), count(*) FILTER (WHERE NOT created)
+                FROM written""".formatted(newId, onConflict, source);
+    }
+
+    private static CopyManager copyManager(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    private static long copy(CopyOperation operation) throws SQLException {
+        try {
+            return operation.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CopyOperation {
+        long run() throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,218 @@
+package ru.t1.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.t1.demo.config.ReplicaDataSource;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.exception.TaskLookupTimeoutException;
+import ru.t1.demo.metrics.QueryCountingStatementInspector;
+import ru.t1.demo.repository.TaskStore;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// single-flight lookups by id, batched into one IN query per batch-window; loads run on a waiting caller and
+// fall back to task_archive
+@Profile("!reactive")
+@Component
+public class TaskLookupCoalescer {
+
+    private final TaskStore taskStore;
+    private final TransactionOperations readOnlyTransaction;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    private final Duration timeout;
+
+    private final Map<UUID, CompletableFuture<Optional<TaskDto>>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private Batch batch = new Batch();
+
+    private final Counter loadedLookups;
+    private final Counter coalescedLookups;
+    private final DistributionSummary batchSizes;
+
+    @Autowired
+    public TaskLookupCoalescer(TaskStore taskStore,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${tasks.lookup.batch-window:2ms}") Duration batchWindow,
+                               @Value("${tasks.lookup.max-batch-size:100}") int maxBatchSize,
+                               @Value("${tasks.lookup.timeout:5s}") Duration timeout) {
+        this(taskStore, readOnly(transactionManager), meterRegistry, batchWindow, maxBatchSize, timeout);
+    }
+
+    public TaskLookupCoalescer(TaskStore taskStore,
+                               TransactionOperations readOnlyTransaction,
+                               MeterRegistry meterRegistry,
+                               Duration batchWindow,
+                               int maxBatchSize,
+                               Duration timeout) {
+        this.taskStore = taskStore;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+
+        // coalescing ratio = coalesced / (coalesced + loaded)
+        this.loadedLookups = Counter.builder("tasks.lookup.requests")
+                .description("Task lookups by id, by whether they joined a query already in flight")
+                .tag("coalesced", "false")
+                .register(meterRegistry);
+        this.coalescedLookups = Counter.builder("tasks.lookup.requests")
+                .description("Task lookups by id, by whether they joined a query already in flight")
+                .tag("coalesced", "true")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("tasks.lookup.batch.size")
+                .description("Distinct task ids loaded per query")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Optional<TaskDto> findById(UUID id) {
+        // a client pinned to the primary must not share a load that may read a replica
+        if (ReplicaDataSource.isPrimaryRequired()) {
+            loadedLookups.increment();
+            return readOnlyTransaction.execute(status -> taskStore.findDtoById(id)
+                    .or(() -> taskStore.findArchivedDtosByIdIn(List.of(id)).stream().findFirst()));
+        }
+
+        CompletableFuture<Optional<TaskDto>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<TaskDto>> existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) {
+            coalescedLookups.increment();
+            return join(existing);
+        }
+
+        loadedLookups.increment();
+        enqueue(id, created);
+        return join(created);
+    }
+
+    private void enqueue(UUID id, CompletableFuture<Optional<TaskDto>> lookup) {
+        Batch opened = null;
+        Batch full = null;
+        batchLock.lock();
+        try {
+            if (batch.lookups.isEmpty()) {
+                opened = batch;
+                // the query is counted against the request that opened the batch
+                batch.queryCount = QueryCountingStatementInspector.current();
+            }
+            batch.lookups.put(id, lookup);
+            if (batch.lookups.size() >= maxBatchSize || batchWindow.isZero()) {
+                full = batch;
+                batch = new Batch();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+
+        if (full != null) {
+            load(full);
+        } else if (opened != null) {
+            // the opener would wait for the load anyway, so it waits out the window and runs it
+            LockSupport.parkNanos(batchWindow.toNanos());
+            flush(opened);
+        }
+    }
+
+    private void flush(Batch opened) {
+        batchLock.lock();
+        try {
+            // filled up and loaded by another caller in the meantime
+            if (batch != opened) {
+                return;
+            }
+            batch = new Batch();
+        } finally {
+            batchLock.unlock();
+        }
+        load(opened);
+    }
+
+    private void load(Batch ready) {
+        Map<UUID, CompletableFuture<Optional<TaskDto>>> lookups = ready.lookups;
+        batchSizes.record(lookups.size());
+        Map<UUID, TaskDto> found = new HashMap<>();
+        int[] ownQueryCount = QueryCountingStatementInspector.current();
+        QueryCountingStatementInspector.attach(ready.queryCount);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                if (lookups.size() == 1) {
+                    taskStore.findDtoById(lookups.keySet().iterator().next())
+                            .ifPresent(task -> found.put(task.id(), task));
+                } else {
+                    List<TaskDto> tasks = taskStore.findDtosByIdIn(lookups.keySet());
+                    tasks.forEach(task -> found.put(task.id(), task));
+                }
+                // archived tasks are rarely asked for: the archive is only read for the ids the active table lacks
+                if (found.size() < lookups.size()) {
+                    List<UUID> missing = lookups.keySet().stream()
+                            .filter(id -> !found.containsKey(id))
+                            .toList();
+                    taskStore.findArchivedDtosByIdIn(missing).forEach(task -> found.put(task.id(), task));
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            lookups.forEach((id, lookup) -> {
+                inFlight.remove(id, lookup);
+                lookup.completeExceptionally(e);
+            });
+            return;
+        } finally {
+            QueryCountingStatementInspector.attach(ownQueryCount);
+        }
+
+        // later callers start a fresh load instead of joining this finished one
+        lookups.forEach((id, lookup) -> {
+            inFlight.remove(id, lookup);
+            lookup.complete(Optional.ofNullable(found.get(id)));
+        });
+    }
+
+    private Optional<TaskDto> join(CompletableFuture<Optional<TaskDto>> lookup) {
+        try {
+            return lookup.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TaskLookupTimeoutException("Task lookup timed out after " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskLookupTimeoutException("Task lookup interrupted");
+        }
+    }
+
+    private static final class Batch {
+        final Map<UUID, CompletableFuture<Optional<TaskDto>>> lookups = new HashMap<>();
+        int[] queryCount;
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+}
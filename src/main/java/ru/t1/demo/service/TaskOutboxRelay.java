@@ -0,0 +1,43 @@
+package ru.t1.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.t1.demo.repository.TaskChangeRepository;
+
+@ConditionalOnProperty(name = "tasks.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Profile("!reactive & !memory")
+@Component
+public class TaskOutboxRelay {
+    private final TaskChangeRepository taskChangeRepository;
+    private final TaskChangeService taskChangeService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public TaskOutboxRelay(TaskChangeRepository taskChangeRepository,
+                           TaskChangeService taskChangeService,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${tasks.outbox.batch-size:1000}") int batchSize) {
+        this.taskChangeRepository = taskChangeRepository;
+        this.taskChangeService = taskChangeService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // each pass moves up to batchSize events with one statement; full batches mean there is more to move
+    @Scheduled(fixedDelayString = "${tasks.outbox.poll-interval-ms:200}")
+    public void relay() {
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> taskChangeRepository.tryRelayLock(TaskChangeRepository.RELAY_LOCK_KEY)
+                    ? taskChangeRepository.moveOutboxBatch(batchSize)
+                    : 0);
+        } while (moved == batchSize);
+
+        // also picks up batches moved by other instances
+        taskChangeService.publish(taskChangeRepository.findLastOffset());
+    }
+}
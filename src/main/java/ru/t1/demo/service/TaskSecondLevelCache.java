@@ -0,0 +1,44 @@
+package ru.t1.demo.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.t1.demo.entity.Task;
+
+import java.util.Collection;
+import java.util.UUID;
+
+// evicts tasks changed by native statements (HibernateCacheConfig); the "memory" profile has nothing to evict
+@Profile("!reactive")
+@Component
+public class TaskSecondLevelCache {
+    private final Cache cache;
+
+    public TaskSecondLevelCache(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        this.cache = factory == null ? null : factory.getCache().unwrap(Cache.class);
+    }
+
+    public void evict(UUID id) {
+        if (cache == null) {
+            return;
+        }
+        cache.evictEntityData(Task.class, id);
+    }
+
+    public void evictAll(Collection<UUID> ids) {
+        if (cache == null) {
+            return;
+        }
+        ids.forEach(id -> cache.evictEntityData(Task.class, id));
+    }
+
+    public void clear() {
+        if (cache == null) {
+            return;
+        }
+        cache.evictEntityData(Task.class);
+    }
+}
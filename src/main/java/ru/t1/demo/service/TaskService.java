@@ -1,76 +1,188 @@
 package ru.t1.demo.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskPageDto;
+import ru.t1.demo.dto.TaskSearchHit;
+import ru.t1.demo.dto.TaskSearchPageDto;
+import ru.t1.demo.dto.TaskStatsDto;
 import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskIdStrategy;
+import ru.t1.demo.entity.TaskStatus;
 import ru.t1.demo.exception.TaskIsPresentException;
 import ru.t1.demo.exception.TaskNotFoundException;
-import ru.t1.demo.repository.TaskRepository;
+import ru.t1.demo.exception.TaskSearchException;
+import ru.t1.demo.exception.TaskVersionMismatchException;
+import ru.t1.demo.repository.TaskStore;
+import ru.t1.demo.util.TaskConstraints;
 import ru.t1.demo.util.TaskMapper;
+import ru.t1.demo.util.TaskSearchCursor;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Timed(value = "tasks.service", histogram = true)
+@Profile("!reactive")
 @Service
 public class TaskService {
-    private final TaskRepository taskRepository;
-
-    public TaskService(TaskRepository taskRepository) {
-        this.taskRepository = taskRepository;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final TaskStore taskStore;
+    private final TaskLookupCoalescer taskLookupCoalescer;
+    private final TaskCacheService taskCacheService;
+    private final TaskSecondLevelCache taskSecondLevelCache;
+    private final TaskIdStrategy idStrategy;
+
+    public TaskService(TaskStore taskStore,
+                       TaskLookupCoalescer taskLookupCoalescer,
+                       TaskCacheService taskCacheService,
+                       TaskSecondLevelCache taskSecondLevelCache,
+                       @Value("${" + TaskIdStrategy.PROPERTY + ":TIME_ORDERED}") TaskIdStrategy idStrategy) {
+        this.taskStore = taskStore;
+        this.taskLookupCoalescer = taskLookupCoalescer;
+        this.taskCacheService = taskCacheService;
+        this.taskSecondLevelCache = taskSecondLevelCache;
+        this.idStrategy = idStrategy;
     }
 
-    public List<TaskDto> getAllTasks() {
-        return taskRepository.findAll().stream()
-                .map(TaskMapper::toDto)
-                .toList();
+    @Transactional(readOnly = true)
+    public TaskPageDto getAllTasks(UUID after, Integer limit) {
+        return getAllTasks(after, limit, null, null);
     }
 
-    public TaskDto getTaskById(UUID id) {
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new TaskNotFoundException("Task with id" + id + " not found"));
+    @Transactional(readOnly = true)
+    public TaskPageDto getAllTasks(UUID after, Integer limit, Collection<TaskStatus> statuses, String titlePrefix) {
+        int pageSize = pageSize(limit);
+
+        // one extra row tells whether there is a next page without a separate count query
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<TaskDto> tasks;
+        if ((statuses == null || statuses.isEmpty()) && (titlePrefix == null || titlePrefix.isEmpty())) {
+            tasks = after == null
+                    ? taskStore.findAllByOrderByIdAsc(fetchLimit)
+                    : taskStore.findByIdGreaterThanOrderByIdAsc(after, fetchLimit);
+        } else {
+            tasks = taskStore.findFiltered(after, statuses, titlePrefix, fetchLimit);
+        }
 
-        return TaskMapper.toDto(task);
-    }
+        List<TaskDto> items = tasks.size() > pageSize ? tasks.subList(0, pageSize) : tasks;
+        UUID next = tasks.size() > pageSize ? items.get(items.size() - 1).id() : null;
 
-    public TaskDto saveTask(TaskDto dto) {
+        return new TaskPageDto(items, next);
+    }
 
-        if (taskRepository.findTaskByTitle(dto.title()).isPresent()) {
-            throw new TaskIsPresentException("Task is already present");
+    @Transactional(readOnly = true)
+    public TaskSearchPageDto searchTasks(String query, String after, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new TaskSearchException("Search query must not be blank");
         }
+        int pageSize = pageSize(limit);
+        TaskSearchCursor cursor = after == null ? null : TaskSearchCursor.parse(after);
 
-        Task taskToSave = TaskMapper.toEntity(dto);
-        Task savedTask = taskRepository.save(taskToSave);
+        List<TaskSearchHit> hits = cursor == null
+                ? taskStore.search(query, null, null, pageSize + 1)
+                : taskStore.search(query, cursor.rank(), cursor.id(), pageSize + 1);
 
-        return TaskMapper.toDto(savedTask);
+        List<TaskDto> items = hits.stream()
+                .limit(pageSize)
+                .map(TaskMapper::toDto)
+                .toList();
+        String next = null;
+        if (hits.size() > pageSize) {
+            TaskSearchHit last = hits.get(pageSize - 1);
+            next = new TaskSearchCursor(last.getRank(), last.getId()).toString();
+        }
+
+        return new TaskSearchPageDto(items, next);
     }
 
-    public void deleteTaskById(UUID id) {
-        TaskDto taskDto = getTaskById(id);
-        Task taskToDelete = TaskMapper.toEntity(taskDto);
+    @Transactional(readOnly = true)
+    public TaskStatsDto getTaskStats() {
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, 0L);
+        }
+        taskStore.countByStatus().forEach(count -> byStatus.merge(count.status(), count.count(), Long::sum));
+        taskStore.countArchivedByStatus().forEach(count -> byStatus.merge(count.status(), count.count(), Long::sum));
 
-        taskRepository.delete(taskToDelete);
+        long total = byStatus.values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+
+        return new TaskStatsDto(total, byStatus);
     }
 
-    @Transactional
-    public TaskDto updateTask(UUID id, TaskDto updateTaskRequest) {
+    @Transactional(readOnly = true)
+    public void streamAllTasks(Consumer<TaskDto> consumer) {
+        // DTO rows are never attached, so the persistence context stays empty however long the result set is
+        try (Stream<TaskDto> tasks = taskStore.streamAllByOrderByIdAsc()) {
+            tasks.forEach(consumer);
+        }
+    }
 
-        TaskDto existingTaskDto = getTaskById(id);
-        Task existingTask = TaskMapper.toEntity(existingTaskDto);
+    // not @Transactional: waiting for a coalesced load must not hold a connection; the load runs its own
+    // read-only transaction
+    public TaskDto getTaskById(UUID id) {
+        return taskCacheService.get(id, key -> taskLookupCoalescer.findById(key)
+                .orElseThrow(() -> new TaskNotFoundException("Task with id" + key + " not found")));
+    }
 
-        if (updateTaskRequest.title() != null && !Objects.equals(updateTaskRequest.title(), existingTaskDto.title())) {
-            existingTask.setTitle(updateTaskRequest.title());
+    public TaskDto saveTask(TaskDto dto) {
+        String status = dto.status() == null ? null : dto.status().name();
+        Task savedTask;
+        try {
+            savedTask = taskStore.insertIfTitleAbsent(idStrategy.next(), dto.title(), dto.description(), status)
+                    .orElseThrow(() -> new TaskIsPresentException("Task is already present"));
+        } catch (DataIntegrityViolationException e) {
+            // the title belongs to an archived task, or a required column is missing
+            throw TaskConstraints.translate(e);
         }
 
-        if (updateTaskRequest.description() != null && !Objects.equals(updateTaskRequest.description(), existingTaskDto.description())) {
-            existingTask.setDescription(updateTaskRequest.description());
+        TaskDto saved = TaskMapper.toDto(savedTask);
+        taskCacheService.put(saved);
+        return saved;
+    }
+
+    public void deleteTaskById(UUID id) {
+        int deleted = taskStore.deleteTaskById(id);
+        taskCacheService.evict(id);
+        if (deleted == 0) {
+            throw new TaskNotFoundException("Task with id" + id + " not found");
         }
+        taskSecondLevelCache.evict(id);
+    }
 
-        if (updateTaskRequest.status() != null && !Objects.equals(updateTaskRequest.status(), existingTaskDto.status())) {
-            existingTask.setStatus(updateTaskRequest.status());
+    public TaskDto updateTask(UUID id, TaskDto updateTaskRequest, Long expectedVersion) {
+        String status = updateTaskRequest.status() == null ? null : updateTaskRequest.status().name();
+
+        try {
+            // an archived task the update changes moves back to the active table in the same statement
+            Task updatedTask = taskStore.updateTaskFields(id, updateTaskRequest.title(), updateTaskRequest.description(), status, expectedVersion)
+                    .orElseThrow(() -> expectedVersion != null && exists(id)
+                            ? new TaskVersionMismatchException("Task with id " + id + " was modified")
+                            : new TaskNotFoundException("Task with id" + id + " not found"));
+            taskCacheService.evict(id);
+            taskSecondLevelCache.evict(id);
+
+            return TaskMapper.toDto(updatedTask);
+        } catch (DataIntegrityViolationException e) {
+            throw TaskConstraints.translate(e);
         }
+    }
+
+    private boolean exists(UUID id) {
+        return taskStore.existsById(id) || !taskStore.findArchivedDtosByIdIn(List.of(id)).isEmpty();
+    }
 
-        return TaskMapper.toDto(existingTask);
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
     }
 }
@@ -0,0 +1,247 @@
+package ru.t1.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskStatusQueueFullException;
+import ru.t1.demo.exception.TaskStatusUpdateException;
+import ru.t1.demo.repository.TaskStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+// status write-behind: latest status per task wins, flushed in order one statement per batch-size ids, so an
+// older status never lands after a newer one
+@Profile("!reactive")
+@Component
+public class TaskStatusWriteBehind implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TaskStatusWriteBehind.class);
+
+    // stopped after the web server, so no request is still buffering updates while the last flush drains them
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final TaskStore taskStore;
+    private final TaskCacheService taskCacheService;
+    private final TaskSecondLevelCache taskSecondLevelCache;
+    private final Executor taskExecutor;
+    private final int batchSize;
+    private final int capacity;
+
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<UUID, TaskStatus> pending = new LinkedHashMap<>();
+    private boolean flushRequested;
+    private volatile boolean running;
+
+    private final Counter queuedUpdates;
+    private final Counter collapsedUpdates;
+    private final Counter rejectedUpdates;
+    private final Counter failedFlushes;
+    private final DistributionSummary flushSizes;
+
+    public TaskStatusWriteBehind(TaskStore taskStore,
+                                 TaskCacheService taskCacheService,
+                                 TaskSecondLevelCache taskSecondLevelCache,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${tasks.status.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${tasks.status.write-behind.capacity:10000}") int capacity) {
+        this.taskStore = taskStore;
+        this.taskCacheService = taskCacheService;
+        this.taskSecondLevelCache = taskSecondLevelCache;
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+
+        this.queuedUpdates = Counter.builder("tasks.status.updates")
+                .description("Buffered status updates, by whether they replaced one still pending for the task")
+                .tag("outcome", "queued")
+                .register(meterRegistry);
+        this.collapsedUpdates = Counter.builder("tasks.status.updates")
+                .description("Buffered status updates, by whether they replaced one still pending for the task")
+                .tag("outcome", "collapsed")
+                .register(meterRegistry);
+        this.rejectedUpdates = Counter.builder("tasks.status.updates")
+                .description("Buffered status updates, by whether they replaced one still pending for the task")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("tasks.status.flush.failures")
+                .description("Status flushes that failed and were kept for the next one")
+                .register(meterRegistry);
+        this.flushSizes = DistributionSummary.builder("tasks.status.flush.size")
+                .description("Tasks written per status flush statement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("tasks.status.pending", this, TaskStatusWriteBehind::pendingCount)
+                .description("Tasks with a buffered status not yet written")
+                .register(meterRegistry);
+    }
+
+    public void updateStatus(UUID id, TaskStatus status) {
+        if (status == null) {
+            throw new TaskStatusUpdateException("Status is required");
+        }
+
+        boolean flushNow = false;
+        pendingLock.lock();
+        try {
+            if (!running) {
+                rejectedUpdates.increment();
+                throw new TaskStatusQueueFullException("Status updates are not accepted while shutting down");
+            }
+            if (pending.size() >= capacity && !pending.containsKey(id)) {
+                rejectedUpdates.increment();
+                throw new TaskStatusQueueFullException("Too many pending status updates");
+            }
+
+            if (pending.put(id, status) == null) {
+                queuedUpdates.increment();
+            } else {
+                collapsedUpdates.increment();
+            }
+            if (pending.size() >= batchSize && !flushRequested) {
+                flushRequested = true;
+                flushNow = true;
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+
+        if (flushNow) {
+            taskExecutor.execute(this::flush);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.status.write-behind.flush-interval-ms:50}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            // taken under the flush lock: the next flush cannot pick up newer statuses before these are written
+            Map<UUID, TaskStatus> ready;
+            pendingLock.lock();
+            try {
+                ready = pending;
+                if (ready.isEmpty()) {
+                    return;
+                }
+                pending = new LinkedHashMap<>();
+                flushRequested = false;
+            } finally {
+                pendingLock.unlock();
+            }
+            write(new ArrayList<>(ready.entrySet()));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<Map.Entry<UUID, TaskStatus>> entries) {
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<UUID, TaskStatus>> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            UUID[] ids = new UUID[chunk.size()];
+            String[] statuses = new String[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                ids[i] = chunk.get(i).getKey();
+                statuses[i] = chunk.get(i).getValue().name();
+            }
+
+            List<UUID> updated;
+            try {
+                // archived tasks whose status changes come back to the active table in the same statement
+                updated = taskStore.updateStatuses(ids, statuses);
+            } catch (DataAccessException | PersistenceException e) {
+                failedFlushes.increment();
+                requeue(entries.subList(from, entries.size()));
+                return;
+            }
+
+            flushSizes.record(chunk.size());
+            taskCacheService.evictAll(updated);
+            taskSecondLevelCache.evictAll(updated);
+        }
+    }
+
+    // statuses buffered since the failed flush are newer and win
+    private void requeue(List<Map.Entry<UUID, TaskStatus>> entries) {
+        pendingLock.lock();
+        try {
+            Map<UUID, TaskStatus> merged = new LinkedHashMap<>();
+            entries.forEach(entry -> merged.put(entry.getKey(), entry.getValue()));
+            merged.putAll(pending);
+            pending = merged;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private int pendingCount() {
+        pendingLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // updates still buffered are written before the connection pool closes; a failed write is retried once, then
+    // logged and lost
+    @Override
+    public void stop() {
+        pendingLock.lock();
+        try {
+            running = false;
+        } finally {
+            pendingLock.unlock();
+        }
+        flush();
+        if (pendingCount() > 0) {
+            flush();
+        }
+
+        Map<UUID, TaskStatus> lost;
+        pendingLock.lock();
+        try {
+            lost = pending;
+            pending = new LinkedHashMap<>();
+        } finally {
+            pendingLock.unlock();
+        }
+        if (!lost.isEmpty()) {
+            log.error("Shutting down with {} status updates not written: {}", lost.size(), lost);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
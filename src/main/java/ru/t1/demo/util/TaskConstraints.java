@@ -0,0 +1,49 @@
+package ru.t1.demo.util;
+
+import io.r2dbc.spi.R2dbcException;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.t1.demo.exception.TaskInvalidException;
+import ru.t1.demo.exception.TaskIsPresentException;
+
+import java.sql.SQLException;
+
+// tells a taken title apart from the other integrity violations a task write can hit (NOT NULL, CHECK, primary key)
+public final class TaskConstraints {
+
+    // the unique index on task.title; the archived-title trigger raises its violations under the same name
+    public static final String TITLE_UNIQUE = "uk_task_title";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private TaskConstraints() {
+    }
+
+    // 409 for a taken title, 400 for anything else the request got wrong
+    public static RuntimeException translate(DataIntegrityViolationException e) {
+        return isTitleTaken(e)
+                ? new TaskIsPresentException("Task is already present")
+                : new TaskInvalidException("Task is invalid: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage(), e);
+    }
+
+    public static boolean isTitleTaken(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PSQLException psql && psql.getServerErrorMessage() != null) {
+                ServerErrorMessage message = psql.getServerErrorMessage();
+                return UNIQUE_VIOLATION.equals(message.getSQLState()) && TITLE_UNIQUE.equals(message.getConstraint());
+            }
+            String sqlState = cause instanceof SQLException sql ? sql.getSQLState()
+                    : cause instanceof R2dbcException r2dbc ? r2dbc.getSqlState()
+                    : null;
+            if (sqlState != null) {
+                // the R2DBC driver exposes the constraint only through its runtime-scoped API; the message names it too
+                return UNIQUE_VIOLATION.equals(sqlState)
+                        && cause.getMessage() != null
+                        && cause.getMessage().contains("\"" + TITLE_UNIQUE + "\"");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.t1.demo.util;
+
+import org.springframework.http.ETag;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.exception.TaskVersionMismatchException;
+
+import java.util.List;
+
+// strong ETags built from the task's @Version column
+public final class TaskETags {
+
+    private TaskETags() {
+    }
+
+    public static String of(TaskDto task) {
+        return "\"" + task.version() + "\"";
+    }
+
+    // null means "no precondition": the header is absent or "*"
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<ETag> eTags = ETag.parse(ifMatch);
+        if (eTags.size() == 1 && eTags.get(0).isWildcard()) {
+            return null;
+        }
+        // If-Match uses strong comparison, so weak or foreign tags can never match
+        if (eTags.size() != 1 || eTags.get(0).weak()) {
+            throw new TaskVersionMismatchException("If-Match must carry a single strong task ETag");
+        }
+        try {
+            return Long.parseLong(eTags.get(0).tag());
+        } catch (NumberFormatException e) {
+            throw new TaskVersionMismatchException("If-Match must carry a single strong task ETag");
+        }
+    }
+}
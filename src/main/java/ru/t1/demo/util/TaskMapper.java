@@ -1,8 +1,13 @@
 package ru.t1.demo.util;
 
 import org.springframework.stereotype.Component;
+import ru.t1.demo.dto.TaskChangeDto;
 import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskSearchHit;
 import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskChange;
+import ru.t1.demo.entity.TaskRow;
+import ru.t1.demo.entity.TaskSearchRow;
 
 @Component
 public class TaskMapper {
@@ -19,12 +24,29 @@ public class TaskMapper {
                 .build();
     }
 
+    // the canonical constructors below skip a builder object per mapped row
     public static TaskDto toDto(Task task) {
-        return TaskDto.builder()
-                .id(task.getId())
-                .title(task.getTitle())
-                .description(task.getDescription())
-                .status(task.getStatus())
-                .build();
+        return new TaskDto(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(), task.getVersion());
+    }
+
+    public static TaskRow toRow(TaskDto dto) {
+        return new TaskRow(dto.id(), dto.title(), dto.description(), dto.status(), dto.version());
+    }
+
+    public static TaskDto toDto(TaskRow row) {
+        return new TaskDto(row.id(), row.title(), row.description(), row.status(), row.version());
+    }
+
+    public static TaskDto toDto(TaskSearchHit hit) {
+        return new TaskDto(hit.getId(), hit.getTitle(), hit.getDescription(), hit.getStatus(), hit.getVersion());
+    }
+
+    public static TaskDto toDto(TaskSearchRow row) {
+        return new TaskDto(row.id(), row.title(), row.description(), row.status(), row.version());
+    }
+
+    public static TaskChangeDto toDto(TaskChange change) {
+        return new TaskChangeDto(change.getId(), change.getTaskId(), change.getType(), change.getChangedFields(),
+                change.getVersion(), change.getCreatedAt());
     }
 }
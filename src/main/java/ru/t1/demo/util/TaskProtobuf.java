@@ -0,0 +1,172 @@
+package ru.t1.demo.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskStatsDto;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// src/main/proto/task.proto messages written from and read into the records directly; nulls are left out
+public final class TaskProtobuf {
+
+    private static final int ID = 1;
+    private static final int TITLE = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int STATUS = 4;
+    private static final int VERSION = 5;
+
+    // a field is only taken when its wire type matches too
+    private static final int ID_TAG = ID << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int TITLE_TAG = TITLE << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int DESCRIPTION_TAG = DESCRIPTION << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int STATUS_TAG = STATUS << 3 | WireFormat.WIRETYPE_VARINT;
+    private static final int VERSION_TAG = VERSION << 3 | WireFormat.WIRETYPE_VARINT;
+
+    private static final int STATS_TOTAL = 1;
+    private static final int STATS_BY_STATUS = 2;
+    private static final int ENTRY_KEY = 1;
+    private static final int ENTRY_VALUE = 2;
+
+    private static final int UUID_BYTES = 16;
+
+    private TaskProtobuf() {
+    }
+
+    public static int size(TaskDto task) {
+        int size = 0;
+        if (task.id() != null) {
+            size += CodedOutputStream.computeTagSize(ID) + CodedOutputStream.computeUInt32SizeNoTag(UUID_BYTES) + UUID_BYTES;
+        }
+        if (task.title() != null) {
+            size += CodedOutputStream.computeStringSize(TITLE, task.title());
+        }
+        if (task.description() != null) {
+            size += CodedOutputStream.computeStringSize(DESCRIPTION, task.description());
+        }
+        if (task.status() != null) {
+            size += CodedOutputStream.computeEnumSize(STATUS, number(task.status()));
+        }
+        if (task.version() != null) {
+            size += CodedOutputStream.computeInt64Size(VERSION, task.version());
+        }
+        return size;
+    }
+
+    public static void write(TaskDto task, CodedOutputStream output) throws IOException {
+        if (task.id() != null) {
+            output.writeTag(ID, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(UUID_BYTES);
+            writeBigEndian(task.id().getMostSignificantBits(), output);
+            writeBigEndian(task.id().getLeastSignificantBits(), output);
+        }
+        if (task.title() != null) {
+            output.writeString(TITLE, task.title());
+        }
+        if (task.description() != null) {
+            output.writeString(DESCRIPTION, task.description());
+        }
+        if (task.status() != null) {
+            output.writeEnum(STATUS, number(task.status()));
+        }
+        if (task.version() != null) {
+            output.writeInt64(VERSION, task.version());
+        }
+    }
+
+    // one element of a list stream: the message prefixed with its length
+    public static void writeDelimited(TaskDto task, CodedOutputStream output) throws IOException {
+        output.writeUInt32NoTag(size(task));
+        write(task, output);
+    }
+
+    // reads up to the end of the input, or of the limit pushed for a delimited message
+    public static TaskDto read(CodedInputStream input) throws IOException {
+        UUID id = null;
+        String title = null;
+        String description = null;
+        TaskStatus status = null;
+        Long version = null;
+        while (true) {
+            int tag = input.readTag();
+            switch (tag) {
+                case 0 -> {
+                    return new TaskDto(id, title, description, status, version);
+                }
+                case ID_TAG -> {
+                    byte[] bytes = input.readByteArray();
+                    if (bytes.length != UUID_BYTES) {
+                        throw new InvalidProtocolBufferException("Task id must be " + UUID_BYTES + " bytes, got " + bytes.length);
+                    }
+                    ByteBuffer bits = ByteBuffer.wrap(bytes);
+                    id = new UUID(bits.getLong(), bits.getLong());
+                }
+                case TITLE_TAG -> title = input.readStringRequireUtf8();
+                case DESCRIPTION_TAG -> description = input.readStringRequireUtf8();
+                case STATUS_TAG -> status = status(input.readEnum());
+                case VERSION_TAG -> version = input.readInt64();
+                default -> input.skipField(tag);
+            }
+        }
+    }
+
+    public static List<TaskDto> readDelimited(CodedInputStream input) throws IOException {
+        List<TaskDto> tasks = new ArrayList<>();
+        while (!input.isAtEnd()) {
+            int limit = input.pushLimit(input.readRawVarint32());
+            tasks.add(read(input));
+            input.popLimit(limit);
+        }
+        return tasks;
+    }
+
+    public static void write(TaskStatsDto stats, CodedOutputStream output) throws IOException {
+        if (stats.total() != 0) {
+            output.writeInt64(STATS_TOTAL, stats.total());
+        }
+        // a map field is a repeated entry message of key and value
+        for (Map.Entry<TaskStatus, Long> count : stats.byStatus().entrySet()) {
+            String key = count.getKey().name();
+            output.writeTag(STATS_BY_STATUS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(CodedOutputStream.computeStringSize(ENTRY_KEY, key)
+                    + CodedOutputStream.computeInt64Size(ENTRY_VALUE, count.getValue()));
+            output.writeString(ENTRY_KEY, key);
+            output.writeInt64(ENTRY_VALUE, count.getValue());
+        }
+    }
+
+    // the enum numbers of task.proto; 0 is "unspecified"
+    private static int number(TaskStatus status) {
+        return switch (status) {
+            case NOT_STARTED -> 1;
+            case IN_PROGRESS -> 2;
+            case COMPLETED -> 3;
+            case CANCELLED -> 4;
+        };
+    }
+
+    private static TaskStatus status(int number) throws InvalidProtocolBufferException {
+        return switch (number) {
+            case 0 -> null;
+            case 1 -> TaskStatus.NOT_STARTED;
+            case 2 -> TaskStatus.IN_PROGRESS;
+            case 3 -> TaskStatus.COMPLETED;
+            case 4 -> TaskStatus.CANCELLED;
+            default -> throw new InvalidProtocolBufferException("Unknown task status " + number);
+        };
+    }
+
+    private static void writeBigEndian(long value, CodedOutputStream output) throws IOException {
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            output.writeRawByte((byte) (value >>> shift));
+        }
+    }
+}
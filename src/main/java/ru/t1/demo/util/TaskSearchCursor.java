@@ -0,0 +1,24 @@
+package ru.t1.demo.util;
+
+import ru.t1.demo.exception.TaskSearchException;
+
+import java.util.UUID;
+
+// Search pages are ordered by (rank desc, id), so the cursor is the last hit's pair: "<rank>_<id>".
+// Float.toString round-trips exactly, which keeps the rank comparison on the next page exact too.
+public record TaskSearchCursor(float rank, UUID id) {
+
+    public static TaskSearchCursor parse(String cursor) {
+        int separator = cursor.indexOf('_');
+        try {
+            return new TaskSearchCursor(Float.parseFloat(cursor.substring(0, separator)), UUID.fromString(cursor.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new TaskSearchException("Invalid search cursor " + cursor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return rank + "_" + id;
+    }
+}
@@ -0,0 +1,18 @@
+CREATE TABLE task (
+    id          UUID         NOT NULL PRIMARY KEY,
+    title       VARCHAR(255) NOT NULL CONSTRAINT uk_task_title UNIQUE,
+    description VARCHAR(255),
+    status      VARCHAR(255) NOT NULL CHECK (status IN ('NOT_STARTED', 'IN_PROGRESS', 'COMPLETED', 'CANCELLED')),
+    version     BIGINT       NOT NULL
+);
+
+-- serves status-filtered keyset pages and the per-status counts
+CREATE INDEX idx_task_status_id ON task (status, id);
+
+-- Titles weigh more than descriptions in ts_rank; the 'simple' configuration does not stem, so it is language neutral.
+-- Not mapped by Task: only the native search query reads it
+ALTER TABLE task ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', title), 'A') || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_task_search_vector ON task USING gin (search_vector);
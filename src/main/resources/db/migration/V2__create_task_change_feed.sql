@@ -0,0 +1,18 @@
+-- written in the same statement as each task mutation, drained into task_change by TaskOutboxRelay
+CREATE TABLE task_outbox (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    task_id        UUID                        NOT NULL,
+    type           VARCHAR(255)                NOT NULL CHECK (type IN ('CREATED', 'UPDATED', 'DELETED')),
+    changed_fields JSONB                       NOT NULL,
+    version        BIGINT                      NOT NULL,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE TABLE task_change (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    task_id        UUID                        NOT NULL,
+    type           VARCHAR(255)                NOT NULL CHECK (type IN ('CREATED', 'UPDATED', 'DELETED')),
+    changed_fields JSONB                       NOT NULL,
+    version        BIGINT                      NOT NULL,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,47 @@
+-- when the task last entered its status; terminal tasks untouched for tasks.archive.max-age move to task_archive
+ALTER TABLE task ADD COLUMN status_changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now();
+
+CREATE FUNCTION task_touch_status_changed_at() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.status_changed_at := now();
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER task_status_changed BEFORE UPDATE OF status ON task
+    FOR EACH ROW WHEN (OLD.status IS DISTINCT FROM NEW.status) EXECUTE FUNCTION task_touch_status_changed_at();
+
+-- only the rows TaskArchiver is looking for, and they leave the table soon after they qualify
+CREATE INDEX idx_task_terminal_status_changed_at ON task (status_changed_at) WHERE status IN ('COMPLETED', 'CANCELLED');
+
+CREATE TABLE task_archive (
+    id                UUID                        NOT NULL PRIMARY KEY,
+    title             VARCHAR(255)                NOT NULL CONSTRAINT uk_task_archive_title UNIQUE,
+    description       VARCHAR(255),
+    status            VARCHAR(255)                NOT NULL CHECK (status IN ('COMPLETED', 'CANCELLED')),
+    version           BIGINT                      NOT NULL,
+    status_changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    archived_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+-- Titles stay unique across task and task_archive: a title written to task must not be archived. This check and the
+-- archiving statement take the same advisory lock per title, so a title archived concurrently is either still in task
+-- (and uk_task_title rejects the write) or already committed to task_archive (and this rejects it). It fails the way
+-- the unique index does, so callers handle both alike
+CREATE FUNCTION task_title_not_archived() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('task_title'), hashtext(NEW.title));
+    IF EXISTS (SELECT 1 FROM task_archive WHERE title = NEW.title AND id <> NEW.id) THEN
+        RAISE EXCEPTION 'duplicate key value violates unique constraint "uk_task_title"'
+            USING ERRCODE = 'unique_violation', CONSTRAINT = 'uk_task_title',
+                  DETAIL = format('Key (title)=(%s) belongs to an archived task.', NEW.title);
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER task_title_inserted BEFORE INSERT ON task
+    FOR EACH ROW EXECUTE FUNCTION task_title_not_archived();
+
+CREATE TRIGGER task_title_updated BEFORE UPDATE OF title ON task
+    FOR EACH ROW WHEN (OLD.title IS DISTINCT FROM NEW.title) EXECUTE FUNCTION task_title_not_archived();
@@ -0,0 +1,89 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.t1.demo.TestingApplication;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.service.TaskBatchService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// End-to-end load against a real Tomcat + PostgreSQL (needs Docker).
+// Compare the thrpt and sample (p0.99) rows of the two virtualThreads params:
+// mvn -Pbench verify -Djmh.include=TaskApiLoadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(256)
+@Fork(1)
+public class TaskApiLoadBenchmark {
+
+    static final int TASK_COUNT = 10_000;
+
+    @Param({"true", "false"})
+    boolean virtualThreads;
+
+    @Param({"10"})
+    int poolSize;
+
+    PostgreSQLContainer<?> postgres;
+    ConfigurableApplicationContext context;
+    HttpClient httpClient;
+    URI pageUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        postgres.start();
+
+        context = new SpringApplicationBuilder(TestingApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--tasks.limiter.enabled=false",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize);
+
+        context.getBean(TaskBatchService.class).saveTasks(IntStream.range(0, TASK_COUNT)
+                .mapToObj(i -> TaskDto.builder()
+                        .title("load task " + i)
+                        .status(TaskStatus.NOT_STARTED)
+                        .build())
+                .toList());
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        pageUri = URI.create("http://localhost:" + port + "/api/v1/tasks?limit=50");
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public int getAllTasksPage() throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(pageUri).GET().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + response.uri() + " answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,100 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.t1.demo.TestingApplication;
+import ru.t1.demo.dto.TaskBatchResultDto;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.service.TaskBatchService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Allocation per request of the list and get endpoints against a real Tomcat + PostgreSQL (needs Docker).
+// The gc profiler counts every thread of the JVM, so gc.alloc.rate.norm covers the server side of each request;
+// the task cache is off so every get reaches the database. Compare gc.alloc.rate.norm across revisions:
+// mvn -Pbench verify -Djmh.include=TaskEndpointAllocationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TaskEndpointAllocationBenchmark {
+
+    static final int TASK_COUNT = 1_000;
+
+    PostgreSQLContainer<?> postgres;
+    ConfigurableApplicationContext context;
+    HttpClient httpClient;
+    URI pageUri;
+    URI[] taskUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        postgres.start();
+
+        context = new SpringApplicationBuilder(TestingApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--tasks.limiter.enabled=false",
+                        "--spring.cache.type=none",
+                        "--tasks.outbox.relay.enabled=false");
+
+        List<TaskBatchResultDto> created = context.getBean(TaskBatchService.class).saveTasks(IntStream.range(0, TASK_COUNT)
+                .mapToObj(i -> TaskDto.builder()
+                        .title("allocation task " + i)
+                        .description("allocation description " + i)
+                        .status(TaskStatus.NOT_STARTED)
+                        .build())
+                .toList());
+
+        String baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/tasks";
+        pageUri = URI.create(baseUri + "?limit=100");
+        taskUris = created.stream()
+                .map(task -> URI.create(baseUri + "/" + task.id()))
+                .toArray(URI[]::new);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public int getAllTasksPage() throws IOException, InterruptedException {
+        return send(pageUri);
+    }
+
+    @Benchmark
+    public int getTaskById() throws IOException, InterruptedException {
+        return send(taskUris[ThreadLocalRandom.current().nextInt(taskUris.length)]);
+    }
+
+    private int send(URI uri) throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + response.uri() + " answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
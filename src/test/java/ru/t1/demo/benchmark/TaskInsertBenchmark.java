@@ -0,0 +1,81 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.t1.demo.TestingApplication;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskIdStrategy;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.service.TaskBatchService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Bulk load through the batch path against a real PostgreSQL (needs Docker), one shot per id strategy.
+// Prints the primary key index size after the load; compare it with the score of the two idStrategy params:
+// mvn -Pbench verify -Djmh.include=TaskInsertBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TaskInsertBenchmark {
+
+    static final int CHUNK_SIZE = 10_000;
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    TaskIdStrategy idStrategy;
+
+    @Param({"10000000"})
+    int rows;
+
+    PostgreSQLContainer<?> postgres;
+    ConfigurableApplicationContext context;
+    TaskBatchService taskBatchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        postgres.start();
+
+        context = new SpringApplicationBuilder(TestingApplication.class)
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--tasks.id-strategy=" + idStrategy);
+        taskBatchService = context.getBean(TaskBatchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        System.out.printf("%n%s: task_pkey %s, idx_task_status_id %s%n", idStrategy,
+                jdbcTemplate.queryForObject("select pg_size_pretty(pg_relation_size('task_pkey'))", String.class),
+                jdbcTemplate.queryForObject("select pg_size_pretty(pg_relation_size('idx_task_status_id'))", String.class));
+
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public int bulkLoad() {
+        int created = 0;
+        for (int offset = 0; offset < rows; offset += CHUNK_SIZE) {
+            int from = offset;
+            created += taskBatchService.saveTasks(IntStream.range(from, Math.min(from + CHUNK_SIZE, rows))
+                    .mapToObj(i -> TaskDto.builder()
+                            .title("bulk task " + i)
+                            .status(TaskStatus.NOT_STARTED)
+                            .build())
+                    .toList()).size();
+        }
+        return created;
+    }
+}
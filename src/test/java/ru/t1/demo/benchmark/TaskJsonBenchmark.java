@@ -0,0 +1,79 @@
+package ru.t1.demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int size;
+
+    ObjectWriter listWriter;
+    ObjectWriter reflectiveListWriter;
+    ObjectReader listReader;
+    List<TaskDto> tasks;
+    byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // same defaults Spring MVC applies to its message converter
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TaskDto.class));
+        listReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TaskDto.class));
+        // baseline: the mix-in switches TaskDtoSerializer off, back to Jackson's bean serializer
+        ObjectMapper reflectiveMapper = Jackson2ObjectMapperBuilder.json()
+                .mixIn(TaskDto.class, DefaultSerialization.class)
+                .build();
+        reflectiveListWriter = reflectiveMapper.writerFor(reflectiveMapper.getTypeFactory().constructCollectionType(List.class, TaskDto.class));
+
+        TaskStatus[] statuses = TaskStatus.values();
+        tasks = IntStream.range(0, size)
+                .mapToObj(i -> TaskDto.builder()
+                        .id(UUID.randomUUID())
+                        .title("benchmark task " + i)
+                        .description("benchmark description " + i)
+                        .status(statuses[i % statuses.length])
+                        .build())
+                .toList();
+        json = listWriter.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeListReflective() throws JsonProcessingException {
+        return reflectiveListWriter.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<TaskDto> deserializeList() throws IOException {
+        return listReader.readValue(json);
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    abstract static class DefaultSerialization {
+    }
+}
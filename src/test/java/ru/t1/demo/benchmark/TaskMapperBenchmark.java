@@ -0,0 +1,55 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.util.TaskMapper;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+    Task task;
+    TaskDto dto;
+
+    @Setup
+    public void setUp() {
+        dto = TaskDto.builder()
+                .id(UUID.randomUUID())
+                .title("benchmark task")
+                .description("benchmark description")
+                .status(TaskStatus.IN_PROGRESS)
+                .build();
+        task = TaskMapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public TaskDto toDto() {
+        return TaskMapper.toDto(task);
+    }
+
+    // the former builder-based mapping, kept as the gc.alloc.rate.norm baseline for toDto
+    @Benchmark
+    public TaskDto toDtoWithBuilder() {
+        return TaskDto.builder()
+                .id(task.getId())
+                .title(task.getTitle())
+                .description(task.getDescription())
+                .status(task.getStatus())
+                .version(task.getVersion())
+                .build();
+    }
+
+    @Benchmark
+    public Task toEntity() {
+        return TaskMapper.toEntity(dto);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.t1.demo.TestingApplication;
+import ru.t1.demo.dto.TaskSearchPageDto;
+import ru.t1.demo.service.TaskService;
+
+import java.util.concurrent.TimeUnit;
+
+// First page of /search against a real PostgreSQL (needs Docker) holding 5M generated tasks.
+// Terms are picked by selectivity: k123 matches 100 rows, w17 5000 and review a fifth of the table, where
+// ranking every match dominates. The query plans printed at setup show the GIN bitmap scan on idx_task_search_vector:
+// mvn -Pbench verify -Djmh.include=TaskSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TaskSearchBenchmark {
+
+    @Param({"k123", "w17", "review"})
+    String query;
+
+    @Param({"5000000"})
+    int rows;
+
+    PostgreSQLContainer<?> postgres;
+    ConfigurableApplicationContext context;
+    TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        postgres.start();
+
+        context = new SpringApplicationBuilder(TestingApplication.class)
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--tasks.outbox.relay.enabled=false");
+        taskService = context.getBean(TaskService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                INSERT INTO task (id, title, description, status, version)
+                SELECT gen_random_uuid(),
+                       'task ' || i || ' ' || (ARRAY['report', 'invoice', 'review', 'deploy', 'meeting'])[i % 5 + 1] || ' w' || i % 1000,
+                       'about ' || (ARRAY['finance', 'release', 'hiring', 'support'])[i % 4 + 1] || ' k' || i % 50000,
+                       'NOT_STARTED', 0
+                FROM generate_series(1, ?) i""", rows);
+        jdbcTemplate.execute("VACUUM ANALYZE task");
+
+        System.out.printf("%ntask %s, idx_task_search_vector %s%n",
+                jdbcTemplate.queryForObject("select pg_size_pretty(pg_relation_size('task'))", String.class),
+                jdbcTemplate.queryForObject("select pg_size_pretty(pg_relation_size('idx_task_search_vector'))", String.class));
+        jdbcTemplate.queryForList("""
+                        EXPLAIN ANALYZE SELECT id FROM task, websearch_to_tsquery('simple', ?) query
+                        WHERE search_vector @@ query ORDER BY ts_rank(search_vector, query) DESC, id LIMIT 101""",
+                        String.class, query)
+                .forEach(System.out::println);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public TaskSearchPageDto firstPage() {
+        return taskService.searchTasks(query, null, null);
+    }
+}
@@ -0,0 +1,121 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.t1.demo.TestingApplication;
+import ru.t1.demo.dto.TaskBatchResultDto;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.metrics.QueryCountingStatementInspector;
+import ru.t1.demo.repository.TaskRepository;
+import ru.t1.demo.service.TaskBatchService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Entity lookups and batch updates against a real PostgreSQL (needs Docker) with Hibernate's second-level cache on
+// and off. The statements counter is the number of JDBC statements the iteration sent to the database and lookups the
+// number of calls behind them:
+// mvn -Pbench verify -Djmh.include=TaskSecondLevelCacheBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSecondLevelCacheBenchmark {
+
+    static final int TASK_COUNT = 1_000;
+    static final int BATCH_SIZE = 20;
+
+    @Param({"true", "false"})
+    boolean secondLevelCache;
+
+    PostgreSQLContainer<?> postgres;
+    ConfigurableApplicationContext context;
+    TaskRepository taskRepository;
+    TaskBatchService taskBatchService;
+    List<TaskBatchResultDto> tasks;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class DatabaseHits {
+        public long statements;
+        public long lookups;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            lookups = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        postgres.start();
+
+        context = new SpringApplicationBuilder(TestingApplication.class)
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--tasks.outbox.relay.enabled=false");
+        taskRepository = context.getBean(TaskRepository.class);
+        taskBatchService = context.getBean(TaskBatchService.class);
+
+        tasks = taskBatchService.saveTasks(IntStream.range(0, TASK_COUNT)
+                .mapToObj(i -> TaskDto.builder()
+                        .title("cached task " + i)
+                        .description("cached description " + i)
+                        .status(TaskStatus.NOT_STARTED)
+                        .build())
+                .toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Optional<Task> findById(DatabaseHits hits) {
+        QueryCountingStatementInspector.start();
+        Optional<Task> task = taskRepository.findById(randomTask().id());
+        count(hits);
+        return task;
+    }
+
+    @Benchmark
+    public List<TaskBatchResultDto> updateTasks(DatabaseHits hits) {
+        List<TaskDto> updates = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> TaskDto.builder()
+                        .id(randomTask().id())
+                        .status(TaskStatus.values()[ThreadLocalRandom.current().nextInt(TaskStatus.values().length)])
+                        .build())
+                .toList();
+        QueryCountingStatementInspector.start();
+        List<TaskBatchResultDto> results = taskBatchService.updateTasks(updates);
+        count(hits);
+        return results;
+    }
+
+    private TaskBatchResultDto randomTask() {
+        return tasks.get(ThreadLocalRandom.current().nextInt(TASK_COUNT));
+    }
+
+    private static void count(DatabaseHits hits) {
+        hits.statements += QueryCountingStatementInspector.stop();
+        hits.lookups++;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.t1.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskPageDto;
+import ru.t1.demo.entity.TaskIdStrategy;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.repository.InMemoryTaskStore;
+import ru.t1.demo.repository.TaskStore;
+import ru.t1.demo.service.TaskCacheService;
+import ru.t1.demo.service.TaskLookupCoalescer;
+import ru.t1.demo.service.TaskSecondLevelCache;
+import ru.t1.demo.service.TaskService;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    static final int TASK_COUNT = 10_000;
+
+    TaskService taskService;
+    UUID[] ids;
+    AtomicLong titleSequence;
+
+    @Setup
+    public void setUp() {
+        TaskStore taskStore = new InMemoryTaskStore(new ObjectMapper(), "", false);
+        taskService = new TaskService(taskStore,
+                new TaskLookupCoalescer(taskStore, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Duration.ZERO, 1, Duration.ofSeconds(5)),
+                new TaskCacheService(new NoOpCacheManager()),
+                // no Hibernate behind the in-memory store, so nothing to evict
+                mock(TaskSecondLevelCache.class, withSettings().stubOnly()),
+                TaskIdStrategy.TIME_ORDERED);
+        titleSequence = new AtomicLong();
+        ids = IntStream.range(0, TASK_COUNT)
+                .mapToObj(i -> taskService.saveTask(newTask()).id())
+                .toArray(UUID[]::new);
+    }
+
+    @Benchmark
+    public TaskDto getTaskById() {
+        return taskService.getTaskById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public TaskPageDto getAllTasksPage() {
+        return taskService.getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TaskDto updateTask() {
+        return taskService.updateTask(ids[ThreadLocalRandom.current().nextInt(ids.length)], TaskDto.builder()
+                .status(TaskStatus.COMPLETED)
+                .build(), null);
+    }
+
+    @Benchmark
+    public TaskDto saveAndDeleteTask() {
+        TaskDto saved = taskService.saveTask(newTask());
+        taskService.deleteTaskById(saved.id());
+        return saved;
+    }
+
+    private TaskDto newTask() {
+        return TaskDto.builder()
+                .title("benchmark task " + titleSequence.incrementAndGet())
+                .description("benchmark description")
+                .status(TaskStatus.NOT_STARTED)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time from launching TestingApplication to "Started TestingApplication" and its resident set size at that point, for
+// the plain jar, the AOT-processed one and AOT with the CDS archive (PostgreSQL in a container, needs Docker). Each
+// iteration is one fresh process against the already migrated schema; build the jars first:
+// mvn -Pfast-start package && mvn -Pbench verify -Djmh.include=TaskStartupBenchmark
+// A native image (mvn -Pnative native:compile) is measured with -Djmh.include="TaskStartupBenchmark -p mode=native"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TaskStartupBenchmark {
+
+    static final Path TARGET = Path.of("target");
+    static final Path FAST_START = TARGET.resolve("fast-start");
+    static final String JAR = "testing-0.0.1-SNAPSHOT.jar";
+
+    @Param({"jar", "aot", "aot-cds"})
+    String mode;
+
+    PostgreSQLContainer<?> postgres;
+    Process application;
+
+    // JMH sums event counters over the iterations: the RSS of one start is rssKb / Cnt
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long rssKb;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        postgres.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        postgres.stop();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() throws InterruptedException {
+        if (application != null) {
+            application.destroyForcibly().waitFor();
+            application = null;
+        }
+    }
+
+    @Benchmark
+    public long startUp(Footprint footprint) throws IOException, InterruptedException {
+        application = process().start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(application.getInputStream()))) {
+            for (String line = output.readLine(); line != null; line = output.readLine()) {
+                if (line.contains("Started TestingApplication")) {
+                    footprint.rssKb = rssKb(application.pid());
+                    return footprint.rssKb;
+                }
+            }
+        }
+        throw new IllegalStateException("TestingApplication exited with " + application.waitFor() + " before it started");
+    }
+
+    // the CDS archive only maps for the classpath it was trained with, so each jar runs from its own directory
+    private ProcessBuilder process() {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        ProcessBuilder process = switch (mode) {
+            case "jar" -> new ProcessBuilder(java, "-jar", JAR).directory(TARGET.toFile());
+            case "aot" -> new ProcessBuilder(java, "-Dspring.aot.enabled=true", "-jar", JAR).directory(FAST_START.toFile());
+            case "aot-cds" -> new ProcessBuilder(java, "-XX:SharedArchiveFile=application.jsa", "-Xshare:on",
+                    "-Dspring.aot.enabled=true", "-jar", JAR).directory(FAST_START.toFile());
+            case "native" -> new ProcessBuilder(TARGET.resolve("testing").toAbsolutePath().toString());
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+        process.command().addAll(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword()));
+        return process.redirectErrorStream(true);
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+}
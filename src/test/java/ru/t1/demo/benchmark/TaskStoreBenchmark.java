@@ -0,0 +1,129 @@
+package ru.t1.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import ru.t1.demo.TestingApplication;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskPageDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.service.TaskService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// TaskService on the JPA backend (PostgreSQL in a container, needs Docker) against the "memory" profile's
+// InMemoryTaskStore, without and with its journal. The application cache is off and lookups are not batched,
+// so every call reaches the repository:
+// mvn -Pbench verify -Djmh.include=TaskStoreBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskStoreBenchmark {
+
+    static final int TASK_COUNT = 10_000;
+
+    @Param({"jpa", "memory", "memory-journal"})
+    String backend;
+
+    PostgreSQLContainer<?> postgres;
+    Path dataDir;
+    ConfigurableApplicationContext context;
+    TaskService taskService;
+    UUID[] ids;
+    AtomicLong titleSequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--spring.cache.type=none",
+                "--tasks.lookup.batch-window=0ms"));
+        if (backend.equals("jpa")) {
+            postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+            postgres.start();
+            args.addAll(List.of(
+                    "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "--spring.datasource.username=" + postgres.getUsername(),
+                    "--spring.datasource.password=" + postgres.getPassword(),
+                    "--tasks.outbox.relay.enabled=false"));
+        } else {
+            args.add("--spring.profiles.active=memory");
+            if (backend.equals("memory-journal")) {
+                dataDir = Files.createTempDirectory("tasks");
+                args.add("--tasks.memory.data-dir=" + dataDir);
+            }
+        }
+
+        context = new SpringApplicationBuilder(TestingApplication.class).run(args.toArray(String[]::new));
+        taskService = context.getBean(TaskService.class);
+        titleSequence = new AtomicLong();
+        ids = IntStream.range(0, TASK_COUNT)
+                .mapToObj(i -> taskService.saveTask(newTask(i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.COMPLETED)).id())
+                .toArray(UUID[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+        if (dataDir != null) {
+            try (var files = Files.list(dataDir)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dataDir);
+        }
+    }
+
+    @Benchmark
+    public TaskDto getTaskById() {
+        return taskService.getTaskById(randomId());
+    }
+
+    @Benchmark
+    public TaskPageDto getTasksByStatus() {
+        return taskService.getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE, List.of(TaskStatus.IN_PROGRESS), null);
+    }
+
+    @Benchmark
+    public TaskDto updateTask() {
+        TaskStatus status = ThreadLocalRandom.current().nextBoolean() ? TaskStatus.IN_PROGRESS : TaskStatus.COMPLETED;
+        return taskService.updateTask(randomId(), TaskDto.builder().status(status).build(), null);
+    }
+
+    @Benchmark
+    public TaskDto saveAndDeleteTask() {
+        TaskDto saved = taskService.saveTask(newTask(TaskStatus.NOT_STARTED));
+        taskService.deleteTaskById(saved.id());
+        return saved;
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private TaskDto newTask(TaskStatus status) {
+        return TaskDto.builder()
+                .title("store task " + titleSequence.incrementAndGet())
+                .description("store description")
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package ru.t1.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.util.TaskProtobuf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// The list body of GET /api/v1/tasks in each format TaskController negotiates, and its size in bytes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskWireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    String format;
+
+    @Param({"1", "100", "1000"})
+    int size;
+
+    ObjectWriter listWriter;
+    ObjectReader listReader;
+    List<TaskDto> tasks;
+    byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        // same builders Spring MVC configures its Jackson converters with
+        ObjectMapper objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TaskDto.class));
+        listReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TaskDto.class));
+
+        TaskStatus[] statuses = TaskStatus.values();
+        tasks = IntStream.range(0, size)
+                .mapToObj(i -> TaskDto.builder()
+                        .id(UUID.randomUUID())
+                        .title("benchmark task " + i)
+                        .description("benchmark description " + i)
+                        .status(statuses[i % statuses.length])
+                        .version((long) i % 5)
+                        .build())
+                .toList();
+        payload = serializeList();
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        if (!format.equals("protobuf")) {
+            return listWriter.writeValueAsBytes(tasks);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        for (TaskDto task : tasks) {
+            TaskProtobuf.writeDelimited(task, output);
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<TaskDto> deserializeList(Payload counter) throws IOException {
+        counter.payloadBytes = payload.length;
+        if (!format.equals("protobuf")) {
+            return listReader.readValue(payload);
+        }
+        return TaskProtobuf.readDelimited(CodedInputStream.newInstance(payload));
+    }
+
+    // JMH sums event counters over the iterations: the size of one payload is payloadBytes / Cnt
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long payloadBytes;
+    }
+}
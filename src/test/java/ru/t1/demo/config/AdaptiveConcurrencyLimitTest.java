@@ -0,0 +1,78 @@
+package ru.t1.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void tryAcquire_RejectsBeyondLimitAndShare() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, 2.0);
+
+        assertTrue(limit.tryAcquire(0.5));
+        assertTrue(limit.tryAcquire(0.5));
+        assertFalse(limit.tryAcquire(0.5));
+        assertTrue(limit.tryAcquire(1.0));
+        assertTrue(limit.tryAcquire(1.0));
+        assertFalse(limit.tryAcquire(1.0));
+
+        limit.release(-1, false);
+
+        assertEquals(3, limit.inFlight());
+        assertTrue(limit.tryAcquire(1.0));
+    }
+
+    @Test
+    void release_GrowsWhileFastAndBusyShrinksWhenSlow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 2.0);
+
+        for (int i = 0; i < 50; i++) {
+            saturate(limit, FAST);
+        }
+        int grown = limit.limit();
+        assertTrue(grown > 10, "limit " + grown);
+
+        for (int i = 0; i < 50; i++) {
+            saturate(limit, SLOW);
+        }
+        assertTrue(limit.limit() < grown / 2, "limit " + limit.limit());
+        assertTrue(limit.limit() >= 2);
+    }
+
+    @Test
+    void release_IdleLimitOnlyLearnsFromFailures() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 2.0);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(FAST, false);
+        }
+        assertEquals(10, limit.limit());
+
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(FAST, true);
+        }
+        assertTrue(limit.limit() < 10, "limit " + limit.limit());
+    }
+
+    // fills the limit, then completes one request with the given latency
+    private static void saturate(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+        int acquired = 0;
+        while (limit.tryAcquire(1.0)) {
+            acquired++;
+        }
+        limit.release(latencyNanos, false);
+        for (int i = 1; i < acquired; i++) {
+            limit.release(-1, false);
+        }
+    }
+}
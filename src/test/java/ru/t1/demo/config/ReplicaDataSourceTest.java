@@ -0,0 +1,75 @@
+package ru.t1.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaDataSourceTest {
+
+    @Mock
+    HikariDataSource first;
+
+    @Mock
+    HikariDataSource second;
+
+    @Mock
+    DataSource primary;
+
+    Connection firstConnection;
+    Connection secondConnection;
+
+    @BeforeEach
+    void setUp() {
+        firstConnection = mock(Connection.class);
+        secondConnection = mock(Connection.class);
+    }
+
+    @Test
+    void roundRobin_AlternatesReplicas() throws Exception {
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaDataSource dataSource = new ReplicaDataSource(List.of(first, second), primary, ReplicaBalancing.ROUND_ROBIN);
+
+        assertSame(firstConnection, dataSource.getConnection());
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(firstConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void leastConnections_PicksLeastBusyReplica() throws Exception {
+        HikariPoolMXBean busy = mock(HikariPoolMXBean.class);
+        HikariPoolMXBean idle = mock(HikariPoolMXBean.class);
+        when(busy.getActiveConnections()).thenReturn(7);
+        when(idle.getActiveConnections()).thenReturn(2);
+        when(first.getHikariPoolMXBean()).thenReturn(busy);
+        when(second.getHikariPoolMXBean()).thenReturn(idle);
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaDataSource dataSource = new ReplicaDataSource(List.of(first, second), primary, ReplicaBalancing.LEAST_CONNECTIONS);
+
+        assertSame(secondConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void usePrimary_BypassesReplicas() throws Exception {
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaDataSource dataSource = new ReplicaDataSource(List.of(first, second), primary, ReplicaBalancing.ROUND_ROBIN);
+
+        try (ReplicaDataSource.PrimaryScope ignored = ReplicaDataSource.usePrimary()) {
+            assertSame(primaryConnection, dataSource.getConnection());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.t1.demo.config;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import ru.t1.demo.TestContainersConfig;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The primary comes from TestContainersConfig; a second PostgreSQL stands in for a read replica. There is no
+// replication between the two: the test migrates the replica's schema and writes its rows itself, which also makes it
+// visible which instance answered a request
+@Testcontainers
+@AutoConfigureMockMvc
+@Import(TestContainersConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "tasks.outbox.relay.enabled=false",
+        // a cached task would answer without touching either database
+        "spring.cache.type=none"
+})
+class ReplicaRoutingIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> replicaContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+            .withDatabaseName("testDatabase")
+            .withUsername("testUser")
+            .withPassword("testPassword");
+
+    // read before the configuration classes are parsed, so ReplicaDataSourceConfig's condition sees it
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("tasks.datasource.replica-urls", replicaContainer::getJdbcUrl);
+    }
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeAll
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(
+                replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword()));
+        // the schema a real replica would get from the primary
+        Flyway.configure()
+                .dataSource(replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void init() {
+        primary.update("DELETE FROM task");
+        replica.update("DELETE FROM task");
+    }
+
+    @Test
+    void readOnlyRequests_AreServedByReplica() throws Exception {
+        replica.update("INSERT INTO task (id, title, status, version) VALUES (?, 'only on replica', 'NOT_STARTED', 0)", UUID.randomUUID());
+
+        mockMvc.perform(get("/api/v1/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("only on replica"));
+        mockMvc.perform(get("/api/v1/tasks/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1));
+    }
+
+    @Test
+    void writes_GoToPrimaryAndTheWriterReadsItsOwnWrite() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"written\",\"status\":\"NOT_STARTED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+                .andReturn();
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+        Cookie pinned = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        assertEquals(1, primary.queryForObject("SELECT count(*) FROM task", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT count(*) FROM task", Integer.class));
+
+        // the writer is pinned to the primary for the stickiness window
+        mockMvc.perform(get("/api/v1/tasks/" + id).cookie(pinned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("written"));
+        // other clients read the (not yet replicated) replica
+        mockMvc.perform(get("/api/v1/tasks/" + id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/tasks/" + id)
+                        .cookie(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() - 1))))
+                .andExpect(status().isNotFound());
+    }
+}
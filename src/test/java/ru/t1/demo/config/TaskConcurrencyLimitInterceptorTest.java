@@ -0,0 +1,137 @@
+package ru.t1.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.t1.demo.controller.TaskBatchController;
+import ru.t1.demo.controller.TaskController;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class TaskConcurrencyLimitInterceptorTest {
+
+    SimpleMeterRegistry meterRegistry;
+    AdaptiveConcurrencyLimit readLimit;
+    AdaptiveConcurrencyLimit writeLimit;
+    TaskConcurrencyLimitInterceptor interceptor;
+    HandlerMethod taskHandler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        readLimit = new AdaptiveConcurrencyLimit(4, 1, 4, 2.0);
+        writeLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 2.0);
+        interceptor = new TaskConcurrencyLimitInterceptor(readLimit, writeLimit, 0.5, Duration.ofSeconds(2), meterRegistry);
+        taskHandler = new HandlerMethod(mock(TaskController.class), TaskController.class.getMethod("getTaskStats"));
+    }
+
+    @Test
+    void preHandle_ScansLeaveRoomForPointReads() {
+        assertTrue(admit("GET", "/api/v1/tasks"));
+        assertTrue(admit("GET", "/api/v1/tasks/search"));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("GET", "/api/v1/tasks/stats"), rejected, taskHandler));
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+
+        assertTrue(admit("GET", "/api/v1/tasks/{id}"));
+        assertTrue(admit("GET", "/api/v1/tasks/{id}"));
+        assertFalse(admit("GET", "/api/v1/tasks/{id}"));
+
+        assertEquals(1.0, meterRegistry.get("tasks.limiter.rejected").tag("class", "scan").counter().count());
+        assertEquals(1.0, meterRegistry.get("tasks.limiter.rejected").tag("class", "point_read").counter().count());
+        assertEquals(4.0, meterRegistry.get("tasks.limiter.in.flight").tag("budget", "read").gauge().value());
+        assertEquals(4.0, meterRegistry.get("tasks.limiter.limit").tag("budget", "read").gauge().value());
+    }
+
+    @Test
+    void preHandle_WritesHaveTheirOwnBudget() {
+        MockHttpServletRequest write = request("PUT", "/api/v1/tasks/{id}");
+        assertTrue(interceptor.preHandle(write, new MockHttpServletResponse(), taskHandler));
+        assertFalse(admit("POST", "/api/v1/tasks"));
+        assertTrue(admit("GET", "/api/v1/tasks/{id}"));
+
+        interceptor.afterCompletion(write, new MockHttpServletResponse(), taskHandler, null);
+
+        assertEquals(0, writeLimit.inFlight());
+        assertTrue(admit("DELETE", "/api/v1/tasks/{id}"));
+    }
+
+    @Test
+    void preHandle_StatusUpdatesTakeNoWritePermit() {
+        assertTrue(admit("PUT", "/api/v1/tasks/{id}"));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(admit("PATCH", "/api/v1/tasks/{id}/status"));
+        }
+        assertEquals(1, writeLimit.inFlight());
+    }
+
+    @Test
+    void preHandle_OtherControllersPass() {
+        HandlerMethod batchHandler = new HandlerMethod(mock(TaskBatchController.class),
+                TaskBatchController.class.getMethods()[0]);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(interceptor.preHandle(request("POST", "/api/v1/tasks/batch"), new MockHttpServletResponse(), batchHandler));
+        }
+        assertEquals(0, writeLimit.inFlight());
+    }
+
+    @Test
+    void streaming_HoldsScanPermitUntilAsyncDispatchCompletes() {
+        MockHttpServletRequest stream = streamingRequest();
+        assertEquals(1, readLimit.inFlight());
+        assertTrue(admit("GET", "/api/v1/tasks/stats"));
+        assertFalse(admit("GET", "/api/v1/tasks"));
+
+        stream.setDispatcherType(DispatcherType.ASYNC);
+        assertTrue(interceptor.preHandle(stream, new MockHttpServletResponse(), taskHandler));
+        interceptor.afterCompletion(stream, new MockHttpServletResponse(), taskHandler, null);
+        // completing the async context afterwards does not release twice
+        stream.getAsyncContext().complete();
+
+        // only the stats request is still running
+        assertEquals(1, readLimit.inFlight());
+        assertEquals(4, readLimit.limit());
+    }
+
+    @Test
+    void streaming_AsyncCompletionReleasesWithoutDispatch() {
+        MockHttpServletRequest stream = streamingRequest();
+
+        stream.getAsyncContext().complete();
+
+        assertEquals(0, readLimit.inFlight());
+    }
+
+    // a list request that went async after taking its permit
+    private MockHttpServletRequest streamingRequest() {
+        MockHttpServletRequest stream = request("GET", "/api/v1/tasks");
+        stream.setAsyncSupported(true);
+        assertTrue(interceptor.preHandle(stream, new MockHttpServletResponse(), taskHandler));
+        stream.startAsync();
+        interceptor.afterConcurrentHandlingStarted(stream, new MockHttpServletResponse(), taskHandler);
+        return stream;
+    }
+
+    private boolean admit(String method, String pattern) {
+        return interceptor.preHandle(request(method, pattern), new MockHttpServletResponse(), taskHandler);
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.t1.demo.controller;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+// the controller suite against InMemoryTaskStore; only what needs PostgreSQL itself is skipped
+@ActiveProfiles("memory")
+class InMemoryTaskControllerIntegrationTest extends TaskControllerIntegrationTest {
+
+    @Override
+    @Test
+    @Disabled("no database behind the in-memory store")
+    void testConnection() {
+    }
+
+    @Override
+    @Test
+    @Disabled("no JDBC statements to count")
+    void getTaskById_RecordsServiceTimerAndQueryCount() {
+    }
+
+    @Override
+    @Test
+    @Disabled("the change feed is relayed from the PostgreSQL outbox")
+    void getChanges_FeedsMutationsInOrder() {
+    }
+}
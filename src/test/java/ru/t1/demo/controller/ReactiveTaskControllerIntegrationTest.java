@@ -0,0 +1,264 @@
+package ru.t1.demo.controller;
+
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.t1.demo.TestContainersConfig;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the WebFlux + R2DBC stack against the Flyway-migrated schema the servlet stack uses
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@Import(TestContainersConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveTaskControllerIntegrationTest {
+
+    // Testcontainers' R2DBC service connection needs its r2dbc module, so the container's JDBC details are reused
+    @TestConfiguration(proxyBeanMethods = false)
+    static class R2dbcContainerConfig {
+
+        @Bean
+        R2dbcConnectionDetails r2dbcConnectionDetails(PostgreSQLContainer<?> postgresContainer) {
+            return () -> ConnectionFactoryOptions.builder()
+                    .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                    .option(ConnectionFactoryOptions.HOST, postgresContainer.getHost())
+                    .option(ConnectionFactoryOptions.PORT, postgresContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                    .option(ConnectionFactoryOptions.DATABASE, postgresContainer.getDatabaseName())
+                    .option(ConnectionFactoryOptions.USER, postgresContainer.getUsername())
+                    .option(ConnectionFactoryOptions.PASSWORD, postgresContainer.getPassword())
+                    .build();
+        }
+    }
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    // archived titles stay taken for every other suite on the same database
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        databaseClient.sql("DELETE FROM task").then().block();
+        databaseClient.sql("DELETE FROM task_archive").then().block();
+        databaseClient.sql("DELETE FROM task_outbox").then().block();
+    }
+
+    @Test
+    void saveTask_ThenGetById() {
+        TaskDto saved = save("test Title", "test description", TaskStatus.IN_PROGRESS);
+
+        webTestClient.get().uri("/api/v1/tasks/{id}", saved.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskDto.class).isEqualTo(saved);
+
+        webTestClient.post().uri("/api/v1/tasks")
+                .bodyValue(TaskDto.builder().title("test Title").status(TaskStatus.NOT_STARTED).build())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void getTaskById_FallsBackToArchive() {
+        UUID id = archive("archived title", TaskStatus.COMPLETED);
+
+        webTestClient.get().uri("/api/v1/tasks/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("archived title")
+                .jsonPath("$.status").isEqualTo("COMPLETED");
+
+        webTestClient.get().uri("/api/v1/tasks/{id}", UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void writes_AppendOutboxEvents() {
+        TaskDto saved = save("test Title", null, TaskStatus.NOT_STARTED);
+
+        webTestClient.put().uri("/api/v1/tasks/{id}", saved.id())
+                .bodyValue(TaskDto.builder().status(TaskStatus.IN_PROGRESS).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.version").isEqualTo(1);
+
+        webTestClient.delete().uri("/api/v1/tasks/{id}", saved.id())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertEquals(List.of("CREATED 0", "UPDATED 1", "DELETED 1"), outbox(saved.id()));
+    }
+
+    @Test
+    void updateTask_RestoresArchivedTask() {
+        UUID id = archive("archived title", TaskStatus.COMPLETED);
+
+        webTestClient.put().uri("/api/v1/tasks/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(TaskDto.builder().status(TaskStatus.IN_PROGRESS).build())
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.put().uri("/api/v1/tasks/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .bodyValue(TaskDto.builder().status(TaskStatus.IN_PROGRESS).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("IN_PROGRESS")
+                .jsonPath("$.version").isEqualTo(2);
+
+        assertEquals(0L, count("SELECT count(*) FROM task_archive"));
+        assertEquals(1L, count("SELECT count(*) FROM task"));
+        assertEquals(List.of("UPDATED 2"), outbox(id));
+    }
+
+    @Test
+    void deleteTask_DeletesArchivedTask() {
+        UUID id = archive("archived title", TaskStatus.CANCELLED);
+
+        webTestClient.delete().uri("/api/v1/tasks/{id}", id)
+                .exchange()
+                .expectStatus().isOk();
+
+        assertEquals(0L, count("SELECT count(*) FROM task_archive"));
+        assertEquals(List.of("DELETED 1"), outbox(id));
+        // the title is free again
+        save("archived title", null, TaskStatus.NOT_STARTED);
+    }
+
+    @Test
+    void getAllTasks_FilteredByStatusAndTitlePrefix() {
+        save("report 1", null, TaskStatus.IN_PROGRESS);
+        save("report 2", null, TaskStatus.COMPLETED);
+        save("review", null, TaskStatus.IN_PROGRESS);
+        save("report_3", null, TaskStatus.CANCELLED);
+
+        webTestClient.get().uri(uri -> uri.path("/api/v1/tasks")
+                        .queryParam("status", "IN_PROGRESS", "COMPLETED")
+                        .queryParam("titlePrefix", "report")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+
+        webTestClient.get().uri(uri -> uri.path("/api/v1/tasks").queryParam("titlePrefix", "report_").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("report_3");
+    }
+
+    @Test
+    void searchTasks_RankedAndKeysetPaged() {
+        save("quarterly invoice", "send the invoice to finance", TaskStatus.IN_PROGRESS);
+        save("invoice archive", null, TaskStatus.COMPLETED);
+        save("team sync", "mention the invoice backlog", TaskStatus.NOT_STARTED);
+        save("unrelated", "nothing here", TaskStatus.NOT_STARTED);
+
+        String next = webTestClient.get().uri(uri -> uri.path("/api/v1/tasks/search").queryParam("q", "invoice").queryParam("limit", 2).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(TaskController.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].title").isEqualTo("quarterly invoice")
+                .jsonPath("$[1].title").isEqualTo("invoice archive")
+                .returnResult().getResponseHeaders().getFirst(TaskController.NEXT_CURSOR_HEADER);
+
+        webTestClient.get().uri(uri -> uri.path("/api/v1/tasks/search")
+                        .queryParam("q", "invoice")
+                        .queryParam("limit", 2)
+                        .queryParam("after", next)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(TaskController.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("team sync");
+
+        webTestClient.get().uri(uri -> uri.path("/api/v1/tasks/search").queryParam("q", "invoice").queryParam("after", "garbage").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getTaskStats_CountsArchivedTasks() {
+        save("first", null, TaskStatus.IN_PROGRESS);
+        save("second", null, TaskStatus.COMPLETED);
+        archive("third", TaskStatus.COMPLETED);
+
+        webTestClient.get().uri("/api/v1/tasks/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(3)
+                .jsonPath("$.byStatus.IN_PROGRESS").isEqualTo(1)
+                .jsonPath("$.byStatus.COMPLETED").isEqualTo(2)
+                .jsonPath("$.byStatus.CANCELLED").isEqualTo(0);
+    }
+
+    private TaskDto save(String title, String description, TaskStatus status) {
+        TaskDto saved = webTestClient.post().uri("/api/v1/tasks")
+                .bodyValue(TaskDto.builder().title(title).description(description).status(status).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaskDto.class)
+                .returnResult().getResponseBody();
+        assertEquals(title, saved.title());
+        return saved;
+    }
+
+    // a servlet instance's relay on the same database may already have moved them to task_change
+    private List<String> outbox(UUID taskId) {
+        return databaseClient.sql("""
+                        SELECT type, version, created_at FROM task_outbox WHERE task_id = :taskId
+                        UNION ALL
+                        SELECT type, version, created_at FROM task_change WHERE task_id = :taskId
+                        ORDER BY created_at""")
+                .bind("taskId", taskId)
+                .map(row -> row.get("type", String.class) + " " + row.get("version", Long.class))
+                .all().collectList().block();
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one().block();
+    }
+
+    private UUID archive(String title, TaskStatus status) {
+        UUID id = UUID.randomUUID();
+        databaseClient.sql("""
+                        INSERT INTO task_archive (id, title, status, version, status_changed_at)
+                        VALUES (:id, :title, :status, 1, now())""")
+                .bind("id", id)
+                .bind("title", title)
+                .bind("status", status.name())
+                .then().block();
+        return id;
+    }
+}
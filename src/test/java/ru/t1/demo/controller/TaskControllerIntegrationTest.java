@@ -1,25 +1,45 @@
 package ru.t1.demo.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.PostgreSQLContainer;
 import ru.t1.demo.TestContainersConfig;
+import ru.t1.demo.config.TaskProtobufHttpMessageConverter;
 import ru.t1.demo.dto.TaskDto;
 import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskIdStrategy;
 import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskInvalidException;
 import ru.t1.demo.exception.TaskIsPresentException;
 import ru.t1.demo.exception.TaskNotFoundException;
-import ru.t1.demo.repository.TaskRepository;
+import ru.t1.demo.repository.TaskChangeRepository;
+import ru.t1.demo.repository.TaskStore;
+import ru.t1.demo.service.TaskStatusWriteBehind;
 import ru.t1.demo.util.TaskMapper;
+import ru.t1.demo.util.TaskProtobuf;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -31,26 +51,38 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class TaskControllerIntegrationTest {
 
-    @Autowired
+    // absent when a subclass runs the suite against the in-memory store
+    @Autowired(required = false)
     PostgreSQLContainer postgreSQLContainer;
 
     @Autowired
-    TaskRepository taskRepository;
+    TaskStore taskStore;
 
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    TaskChangeRepository taskChangeRepository;
+
+    @Autowired
+    TaskStatusWriteBehind taskStatusWriteBehind;
+
     ObjectMapper objectMapper;
 
     @BeforeAll
     void setUp() {
-        postgreSQLContainer.start();
+        if (postgreSQLContainer != null) {
+            postgreSQLContainer.start();
+        }
         objectMapper = new ObjectMapper();
     }
 
     @BeforeEach
     void init() {
-        taskRepository.deleteAll();
+        taskStore.findAllByOrderByIdAsc(Limit.of(Integer.MAX_VALUE)).forEach(task -> taskStore.deleteTaskById(task.id()));
     }
 
     @Test
@@ -62,14 +94,15 @@ class TaskControllerIntegrationTest {
     }
 
     @Test
-    void testSaveTask() {
-        Task task = Task.builder()
-                .title("test Title")
-                .status(TaskStatus.IN_PROGRESS)
-                .build();
-
-        Task savedTask = taskRepository.save(task);
-        Assertions.assertNotNull(savedTask.getId());
+    void testSaveTask() throws Exception {
+        String saved = mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"test Title\",\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        UUID id = UUID.fromString(objectMapper.readTree(saved).get("id").asText());
+        // default TIME_ORDERED strategy
+        Assertions.assertEquals(7, id.version());
     }
 
 
@@ -82,6 +115,200 @@ class TaskControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    void getAllTasks_KeysetPages() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            save(Task.builder()
+                    .title("test Title " + i)
+                    .status(TaskStatus.IN_PROGRESS)
+                    .build());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/tasks").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().exists(TaskController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("limit", "2")
+                        .param("after", firstPage.getResponse().getHeader(TaskController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllTasks_NdjsonStream() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            save(Task.builder()
+                    .title("test Title " + i)
+                    .status(TaskStatus.IN_PROGRESS)
+                    .build());
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/v1/tasks").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(3, body.strip().lines().count());
+        // the stream held its permit until the async dispatch after it completed
+        assertEquals(0.0, meterRegistry.get("tasks.limiter.in.flight").tag("budget", "read").gauge().value());
+        assertTrue(meterRegistry.get("tasks.limiter.limit").tag("budget", "read").gauge().value() > 0);
+    }
+
+    @Test
+    void getAllTasks_FilteredByStatusAndTitlePrefix() throws Exception {
+        save(Task.builder().title("report 1").status(TaskStatus.IN_PROGRESS).build());
+        save(Task.builder().title("report 2").status(TaskStatus.COMPLETED).build());
+        save(Task.builder().title("review").status(TaskStatus.IN_PROGRESS).build());
+        save(Task.builder().title("report_3").status(TaskStatus.CANCELLED).build());
+
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("status", "IN_PROGRESS", "COMPLETED")
+                        .param("titlePrefix", "report"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get("/api/v1/tasks").param("titlePrefix", "report_"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("report_3"));
+    }
+
+    @Test
+    void searchTasks_RankedAndKeysetPaged() throws Exception {
+        save(Task.builder().title("quarterly invoice").description("send the invoice to finance").status(TaskStatus.IN_PROGRESS).build());
+        save(Task.builder().title("invoice archive").status(TaskStatus.COMPLETED).build());
+        save(Task.builder().title("team sync").description("mention the invoice backlog").status(TaskStatus.NOT_STARTED).build());
+        save(Task.builder().title("unrelated").description("nothing here").status(TaskStatus.NOT_STARTED).build());
+
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/tasks/search").param("q", "invoice").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                // a title match outranks a description-only match
+                .andExpect(jsonPath("$[0].title").value("quarterly invoice"))
+                .andExpect(jsonPath("$[1].title").value("invoice archive"))
+                .andExpect(header().exists(TaskController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/api/v1/tasks/search")
+                        .param("q", "invoice")
+                        .param("limit", "2")
+                        .param("after", firstPage.getResponse().getHeader(TaskController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("team sync"))
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/api/v1/tasks/search").param("q", "invoice -archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get("/api/v1/tasks/search").param("q", "invoice").param("after", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTaskStats_CountsPerStatus() throws Exception {
+        save(Task.builder().title("first").status(TaskStatus.IN_PROGRESS).build());
+        save(Task.builder().title("second").status(TaskStatus.IN_PROGRESS).build());
+        save(Task.builder().title("third").status(TaskStatus.COMPLETED).build());
+
+        mockMvc.perform(get("/api/v1/tasks/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(2))
+                .andExpect(jsonPath("$.byStatus.COMPLETED").value(1))
+                .andExpect(jsonPath("$.byStatus.CANCELLED").value(0));
+    }
+
+    @Test
+    void saveTask_ProtobufRoundTrip() throws Exception {
+        TaskDto newTask = TaskDto.builder().title("proto title").description("описание").status(TaskStatus.NOT_STARTED).build();
+
+        byte[] saved = mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .accept(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(protobuf(newTask)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+        TaskDto savedTask = TaskProtobuf.read(CodedInputStream.newInstance(saved));
+
+        assertEquals(newTask.title(), savedTask.title());
+        assertEquals(newTask.description(), savedTask.description());
+        assertEquals(0L, savedTask.version());
+
+        byte[] found = mockMvc.perform(get("/api/v1/tasks/{id}", savedTask.id())
+                        .accept(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, saved.length))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(savedTask, TaskProtobuf.read(CodedInputStream.newInstance(found)));
+
+        mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(new byte[]{0x20, 0x09}))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllTasks_ProtobufDelimitedStreamAndJsonByDefault() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            save(Task.builder()
+                    .title("test Title " + i)
+                    .status(TaskStatus.IN_PROGRESS)
+                    .build());
+        }
+
+        byte[] body = mockMvc.perform(get("/api/v1/tasks").accept(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(3, TaskProtobuf.readDelimited(CodedInputStream.newInstance(body)).size());
+        // other list bodies are not offered as protobuf
+        assertEquals(List.of(), new TaskProtobufHttpMessageConverter().getSupportedMediaTypes(ArrayList.class));
+
+        mockMvc.perform(get("/api/v1/tasks").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(3)));
+        mockMvc.perform(get("/api/v1/tasks/stats").accept(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TaskProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+    }
+
+    @Test
+    void saveTask_SmileInCborOut() throws Exception {
+        TaskDto newTask = TaskDto.builder().title("binary title").status(TaskStatus.IN_PROGRESS).build();
+
+        byte[] saved = mockMvc.perform(post("/api/v1/tasks")
+                        .contentType("application/x-jackson-smile")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(new SmileMapper().writeValueAsBytes(newTask)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        TaskDto savedTask = new CBORMapper().readValue(saved, TaskDto.class);
+
+        assertEquals(newTask.title(), savedTask.title());
+        assertEquals(newTask.status(), savedTask.status());
+
+        byte[] list = mockMvc.perform(get("/api/v1/tasks").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(List.of(savedTask), List.of(new SmileMapper().readValue(list, TaskDto[].class)));
+    }
+
     @Test
     void getTaskById_Success() throws Exception {
         Task task = Task.builder()
@@ -89,7 +316,7 @@ class TaskControllerIntegrationTest {
                 .status(TaskStatus.IN_PROGRESS)
                 .build();
 
-        Task savedTask = taskRepository.save(task);
+        Task savedTask = save(task);
         TaskDto savedTaskDto = TaskMapper.toDto(savedTask);
 
         mockMvc.perform(get("/api/v1/tasks/{id}", savedTaskDto.id()))
@@ -105,7 +332,7 @@ class TaskControllerIntegrationTest {
                 .status(TaskStatus.IN_PROGRESS)
                 .build();
 
-        taskRepository.save(existingTask);
+        save(existingTask);
 
         Task newTask = Task.builder()
                 .title("test Title")
@@ -124,6 +351,19 @@ class TaskControllerIntegrationTest {
 
     }
 
+    @Test
+    void saveTask_MissingColumnIsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"no title\",\"status\":\"NOT_STARTED\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof TaskInvalidException));
+        mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"no status\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteTask_TaskNotFound() throws Exception {
         UUID taskId = UUID.randomUUID();
@@ -142,7 +382,7 @@ class TaskControllerIntegrationTest {
                 .status(TaskStatus.IN_PROGRESS)
                 .build();
 
-        Task savedTask = taskRepository.save(existingTask);
+        Task savedTask = save(existingTask);
         TaskDto savedTaskDto = TaskMapper.toDto(savedTask);
 
 
@@ -163,4 +403,187 @@ class TaskControllerIntegrationTest {
 
 
     }
+
+    @Test
+    void getTaskById_MatchingIfNoneMatchReturnsNotModified() throws Exception {
+        Task savedTask = save(Task.builder()
+                .title("test Title")
+                .status(TaskStatus.IN_PROGRESS)
+                .build());
+
+        String eTag = mockMvc.perform(get("/api/v1/tasks/{id}", savedTask.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/tasks/{id}", savedTask.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateTask_IfMatch() throws Exception {
+        Task savedTask = save(Task.builder()
+                .title("test Title")
+                .status(TaskStatus.IN_PROGRESS)
+                .build());
+
+        mockMvc.perform(put("/api/v1/tasks/{id}", savedTask.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        // the client still holds version 0
+        mockMvc.perform(put("/api/v1/tasks/{id}", savedTask.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CANCELLED\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertEquals(TaskStatus.COMPLETED, taskStore.findDtoById(savedTask.getId()).orElseThrow().status());
+    }
+
+    @Test
+    void updateTask_PartialUpdateKeepsOtherFields() throws Exception {
+        Task savedTask = save(Task.builder()
+                .title("test Title")
+                .description("some description")
+                .status(TaskStatus.IN_PROGRESS)
+                .build());
+
+        mockMvc.perform(put("/api/v1/tasks/{id}", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("test Title"))
+                .andExpect(jsonPath("$.description").value("some description"))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+
+        assertEquals(TaskStatus.COMPLETED, taskStore.findDtoById(savedTask.getId()).orElseThrow().status());
+    }
+
+    @Test
+    void updateTaskStatus_AcceptedThenWritten() throws Exception {
+        Task savedTask = save(Task.builder()
+                .title("status task")
+                .description("kept")
+                .status(TaskStatus.NOT_STARTED)
+                .build());
+
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", savedTask.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        taskStatusWriteBehind.flush();
+
+        mockMvc.perform(get("/api/v1/tasks/{id}", savedTask.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.description").value("kept"));
+    }
+
+    @Test
+    void deleteTask_Success() throws Exception {
+        Task savedTask = save(Task.builder()
+                .title("test Title")
+                .status(TaskStatus.IN_PROGRESS)
+                .build());
+
+        mockMvc.perform(delete("/api/v1/tasks/{id}", savedTask.getId()))
+                .andExpect(status().isOk());
+
+        assertTrue(taskStore.findDtoById(savedTask.getId()).isEmpty());
+    }
+
+    @Test
+    void getTaskById_RecordsServiceTimerAndQueryCount() throws Exception {
+        Task savedTask = save(Task.builder()
+                .title("metered task")
+                .status(TaskStatus.NOT_STARTED)
+                .build());
+
+        double queriesBefore = meterRegistry.find("tasks.db.queries").tag("method", "GET").tag("uri", "/api/v1/tasks/{id}").summaries().stream()
+                .mapToDouble(summary -> summary.totalAmount())
+                .sum();
+
+        mockMvc.perform(get("/api/v1/tasks/{id}", savedTask.getId()))
+                .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("tasks.service").tag("method", "getTaskById").timer().count() > 0);
+        // the lookup runs on the coalescer's thread but is still counted against this request
+        assertTrue(meterRegistry.get("tasks.db.queries").tag("method", "GET").tag("uri", "/api/v1/tasks/{id}").summary().totalAmount() > queriesBefore);
+    }
+
+    @Test
+    void getChanges_FeedsMutationsInOrder() throws Exception {
+        Long lastOffset = taskChangeRepository.findLastOffset();
+        long cursor = lastOffset == null ? 0 : lastOffset;
+
+        String created = mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"feed task\",\"status\":\"NOT_STARTED\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(created).get("id").asText();
+        mockMvc.perform(put("/api/v1/tasks/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/tasks/{id}", id))
+                .andExpect(status().isOk());
+
+        List<JsonNode> changes = new ArrayList<>();
+        // the relay may move the three events in more than one batch
+        for (int attempt = 0; attempt < 10 && changes.size() < 3; attempt++) {
+            MvcResult result = mockMvc.perform(get("/api/v1/tasks/changes").param("since", String.valueOf(cursor)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            MvcResult response = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            objectMapper.readTree(response.getResponse().getContentAsString()).forEach(change -> {
+                if (change.get("taskId").asText().equals(id)) {
+                    changes.add(change);
+                }
+            });
+            cursor = Long.parseLong(response.getResponse().getHeader(TaskController.NEXT_CURSOR_HEADER));
+        }
+
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), changes.stream().map(change -> change.get("type").asText()).toList());
+        assertEquals(List.of(0L, 1L, 1L), changes.stream().map(change -> change.get("version").asLong()).toList());
+        assertEquals("COMPLETED", changes.get(1).get("changedFields").get("status").asText());
+        assertEquals(1, changes.get(1).get("changedFields").size());
+        assertTrue(changes.get(0).get("offset").asLong() < changes.get(2).get("offset").asLong());
+    }
+
+    private static byte[] protobuf(TaskDto task) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        TaskProtobuf.write(task, output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    // written through the store rather than the API, on either backend
+    private Task save(Task task) {
+        return taskStore.insertIfTitleAbsent(TaskIdStrategy.TIME_ORDERED.next(), task.getTitle(), task.getDescription(),
+                task.getStatus().name()).orElseThrow();
+    }
 }
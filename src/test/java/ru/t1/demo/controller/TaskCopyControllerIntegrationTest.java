@@ -0,0 +1,181 @@
+package ru.t1.demo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.t1.demo.TestContainersConfig;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.repository.TaskRepository;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc
+@Import(TestContainersConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TaskCopyControllerIntegrationTest {
+
+    @Autowired
+    PostgreSQLContainer postgreSQLContainer;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    ObjectMapper objectMapper;
+
+    @BeforeAll
+    void setUp() {
+        postgreSQLContainer.start();
+        objectMapper = new ObjectMapper();
+    }
+
+    @BeforeEach
+    void init() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void exportTasks_Ndjson() throws Exception {
+        Task task = taskRepository.save(Task.builder()
+                .title("export \"quoted\", title")
+                .description("line\nbreak")
+                .status(TaskStatus.IN_PROGRESS)
+                .build());
+
+        String body = export("NDJSON", MediaType.APPLICATION_NDJSON);
+
+        JsonNode line = objectMapper.readTree(body.strip());
+        assertEquals(task.getId().toString(), line.get("id").asText());
+        assertEquals(task.getTitle(), line.get("title").asText());
+        assertEquals(task.getDescription(), line.get("description").asText());
+        assertEquals(0, line.get("version").asLong());
+    }
+
+    @Test
+    void exportTasks_CsvRoundTrip() throws Exception {
+        taskRepository.save(Task.builder().title("first, with comma").status(TaskStatus.NOT_STARTED).build());
+        taskRepository.save(Task.builder().title("second").description("d").status(TaskStatus.COMPLETED).build());
+
+        String csv = export("CSV", TaskCopyController.TEXT_CSV);
+        assertTrue(csv.startsWith("id,title,description,status,version"));
+
+        taskRepository.deleteAll();
+        mockMvc.perform(post("/api/v1/tasks/import").param("format", "CSV").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(2))
+                .andExpect(jsonPath("$.created").value(2));
+
+        assertTrue(taskRepository.findTaskByTitle("first, with comma").isPresent());
+        assertEquals("d", taskRepository.findTaskByTitle("second").orElseThrow().getDescription());
+    }
+
+    @Test
+    void importTasks_SkipKeepsExistingTitles() throws Exception {
+        taskRepository.save(Task.builder().title("existing").description("old").status(TaskStatus.NOT_STARTED).build());
+
+        mockMvc.perform(post("/api/v1/tasks/import")
+                        .content("""
+                                {"title":"existing","description":"new","status":"COMPLETED"}
+                                {"title":"fresh","status":"IN_PROGRESS"}
+
+                                {"title":"fresh","description":"last one wins","status":"IN_PROGRESS"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(0))
+                .andExpect(jsonPath("$.skipped").value(2));
+
+        assertEquals("old", taskRepository.findTaskByTitle("existing").orElseThrow().getDescription());
+        Task fresh = taskRepository.findTaskByTitle("fresh").orElseThrow();
+        assertEquals("last one wins", fresh.getDescription());
+        assertEquals(7, fresh.getId().version());
+    }
+
+    @Test
+    void importTasks_OverwriteReplacesExistingTitles() throws Exception {
+        Task existing = taskRepository.save(Task.builder().title("existing").description("old").status(TaskStatus.NOT_STARTED).build());
+        UUID id = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/import")
+                        .param("onConflict", "OVERWRITE")
+                        .content("""
+                                {"title":"existing","description":"new","status":"COMPLETED"}
+                                {"id":"%s","title":"fresh","status":"IN_PROGRESS"}
+                                """.formatted(id)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1));
+
+        Task overwritten = taskRepository.findById(existing.getId()).orElseThrow();
+        assertEquals("new", overwritten.getDescription());
+        assertEquals(TaskStatus.COMPLETED, overwritten.getStatus());
+        assertEquals(1, overwritten.getVersion());
+        assertTrue(taskRepository.findById(id).isPresent());
+    }
+
+    @Test
+    void importTasks_OverwriteGivesClashingIdsFreshOnes() throws Exception {
+        Task existing = taskRepository.save(Task.builder().title("existing").description("old").status(TaskStatus.NOT_STARTED).build());
+        UUID shared = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/v1/tasks/import")
+                        .param("onConflict", "OVERWRITE")
+                        .content("""
+                                {"id":"%s","title":"renamed","status":"IN_PROGRESS"}
+                                {"id":"%s","title":"first","status":"IN_PROGRESS"}
+                                {"id":"%s","title":"second","status":"IN_PROGRESS"}
+                                """.formatted(existing.getId(), shared, shared)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.updated").value(0));
+
+        assertEquals("existing", taskRepository.findById(existing.getId()).orElseThrow().getTitle());
+        assertTrue(taskRepository.findTaskByTitle("renamed").isPresent());
+        // the last row keeps the id it was given
+        assertEquals(shared, taskRepository.findTaskByTitle("second").orElseThrow().getId());
+        assertEquals(3 + 1, taskRepository.count());
+    }
+
+    @Test
+    void importTasks_InvalidRowRejectsWholeImport() throws Exception {
+        mockMvc.perform(post("/api/v1/tasks/import")
+                        .content("""
+                                {"title":"valid","status":"IN_PROGRESS"}
+                                {"title":"invalid","status":"UNKNOWN"}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, taskRepository.count());
+    }
+
+    private String export(String format, MediaType mediaType) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/tasks/export").param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.t1.demo.dto;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TaskDtoSerializerTest {
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final ObjectMapper defaultMapper = new ObjectMapper().addMixIn(TaskDto.class, DefaultSerialization.class);
+
+    @Test
+    void serialize_MatchesDefaultRecordSerialization() throws Exception {
+        TaskDto task = new TaskDto(UUID.randomUUID(), "title \"quoted\"", "описание", TaskStatus.IN_PROGRESS, 3L);
+
+        assertEquals(defaultMapper.writeValueAsString(task), objectMapper.writeValueAsString(task));
+    }
+
+    @Test
+    void serialize_WritesNulls() throws Exception {
+        TaskDto task = TaskDto.builder().title("only title").build();
+
+        assertEquals(defaultMapper.writeValueAsString(task), objectMapper.writeValueAsString(task));
+        assertEquals(task, objectMapper.readValue(objectMapper.writeValueAsString(task), TaskDto.class));
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    abstract static class DefaultSerialization {
+    }
+}
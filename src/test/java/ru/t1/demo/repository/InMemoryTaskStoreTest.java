@@ -0,0 +1,143 @@
+package ru.t1.demo.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskStatusCountDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskIdStrategy;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTaskStoreTest {
+
+    static final int ATTEMPTS = 2000;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void insertIfTitleAbsent_ConcurrentSameTitleExactlyOneWins() throws Exception {
+        InMemoryTaskStore repository = store("");
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Task>>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return repository.insertIfTitleAbsent(UUID.randomUUID(), "contended title", null, "NOT_STARTED");
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Optional<Task>> attempt : attempts) {
+                created += attempt.get(10, TimeUnit.SECONDS).isPresent() ? 1 : 0;
+            }
+            assertEquals(1, created);
+            assertEquals(1, count(repository));
+            assertTrue(findByTitle(repository, "contended title").isPresent());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateTaskFields_MovesTitleAndStatusIndexes() {
+        InMemoryTaskStore repository = store("");
+        Task first = repository.insertIfTitleAbsent(UUID.randomUUID(), "first", null, "NOT_STARTED").orElseThrow();
+        repository.insertIfTitleAbsent(UUID.randomUUID(), "second", null, "NOT_STARTED").orElseThrow();
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> repository.updateTaskFields(first.getId(), "second", null, null, null));
+        assertTrue(repository.updateTaskFields(first.getId(), null, null, null, 5L).isEmpty());
+
+        Task renamed = repository.updateTaskFields(first.getId(), "renamed", null, "COMPLETED", 0L).orElseThrow();
+
+        assertEquals(1, renamed.getVersion());
+        assertTrue(findByTitle(repository, "first").isEmpty());
+        assertEquals(first.getId(), findByTitle(repository, "renamed").orElseThrow().id());
+        assertEquals(List.of(first.getId()), repository.findFiltered(null, List.of(TaskStatus.COMPLETED), null, Limit.of(10))
+                .stream().map(TaskDto::id).toList());
+        assertEquals(1, repository.findFiltered(null, List.of(TaskStatus.NOT_STARTED), "sec", Limit.of(10)).size());
+        assertTrue(repository.countByStatus().contains(new TaskStatusCountDto(TaskStatus.COMPLETED, 1)));
+        assertTrue(repository.countByStatus().contains(new TaskStatusCountDto(TaskStatus.NOT_STARTED, 1)));
+    }
+
+    @Test
+    void findFiltered_KeysetPagesAcrossStatuses() {
+        InMemoryTaskStore repository = store("");
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            TaskStatus status = i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.COMPLETED;
+            ids.add(repository.insertIfTitleAbsent(TaskIdStrategy.TIME_ORDERED.next(), "task " + i, null, status.name())
+                    .orElseThrow().getId());
+        }
+        repository.insertIfTitleAbsent(TaskIdStrategy.TIME_ORDERED.next(), "cancelled", null, "CANCELLED");
+
+        List<TaskStatus> statuses = List.of(TaskStatus.IN_PROGRESS, TaskStatus.COMPLETED);
+        List<TaskDto> firstPage = repository.findFiltered(null, statuses, null, Limit.of(4));
+        List<TaskDto> secondPage = repository.findFiltered(firstPage.get(3).id(), statuses, null, Limit.of(4));
+
+        assertEquals(ids.subList(0, 4), firstPage.stream().map(TaskDto::id).toList());
+        assertEquals(ids.subList(4, 6), secondPage.stream().map(TaskDto::id).toList());
+    }
+
+    @Test
+    void journal_RestartRestoresSnapshotAndLaterWrites() throws Exception {
+        InMemoryTaskStore repository = store(dataDir.toString());
+        Task kept = repository.insertIfTitleAbsent(UUID.randomUUID(), "kept", "before snapshot", "NOT_STARTED").orElseThrow();
+        Task deleted = repository.insertIfTitleAbsent(UUID.randomUUID(), "deleted", null, "NOT_STARTED").orElseThrow();
+        repository.snapshot();
+        repository.updateStatuses(new UUID[]{kept.getId()}, new String[]{"COMPLETED"});
+        repository.deleteTaskById(deleted.getId());
+        Task added = repository.insertIfTitleAbsent(UUID.randomUUID(), "added", null, "IN_PROGRESS").orElseThrow();
+        // simulates a crash: no final snapshot, and the last append was cut short
+        try (var journal = Files.list(dataDir)) {
+            Path current = journal.filter(path -> path.getFileName().toString().startsWith("journal-")).max(Path::compareTo).orElseThrow();
+            Files.writeString(current, "{\"task\":{\"id\":", StandardOpenOption.APPEND);
+        }
+
+        InMemoryTaskStore restarted = store(dataDir.toString());
+
+        assertEquals(2, count(restarted));
+        TaskDto restored = restarted.findDtoById(kept.getId()).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, restored.status());
+        assertEquals("before snapshot", restored.description());
+        assertEquals(1, restored.version());
+        assertTrue(restarted.findDtoById(deleted.getId()).isEmpty());
+        assertEquals(added.getId(), findByTitle(restarted, "added").orElseThrow().id());
+        assertTrue(restarted.insertIfTitleAbsent(UUID.randomUUID(), "kept", null, "NOT_STARTED").isEmpty());
+
+        restarted.close();
+        assertEquals(2, count(store(dataDir.toString())));
+    }
+
+    private static InMemoryTaskStore store(String dataDir) {
+        return new InMemoryTaskStore(new ObjectMapper(), dataDir, false);
+    }
+
+    private static long count(InMemoryTaskStore store) {
+        return store.countByStatus().stream().mapToLong(TaskStatusCountDto::count).sum();
+    }
+
+    private static Optional<TaskDto> findByTitle(InMemoryTaskStore store, String title) {
+        return store.findFiltered(null, null, title, Limit.of(100)).stream()
+                .filter(task -> task.title().equals(title))
+                .findFirst();
+    }
+}
@@ -0,0 +1,172 @@
+package ru.t1.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskStatusCountDto;
+import ru.t1.demo.entity.TaskIdStrategy;
+import ru.t1.demo.entity.TaskRow;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskIsPresentException;
+import ru.t1.demo.exception.TaskNotFoundException;
+import ru.t1.demo.exception.TaskSearchException;
+import ru.t1.demo.exception.TaskVersionMismatchException;
+import ru.t1.demo.repository.ReactiveTaskRepository;
+import ru.t1.demo.util.TaskMapper;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTaskServiceTest {
+
+    @Mock
+    ReactiveTaskRepository taskRepository;
+
+    ReactiveTaskService taskService;
+
+    TaskDto taskDto;
+    TaskRow row;
+
+    @BeforeEach
+    void setUp() {
+        taskService = new ReactiveTaskService(taskRepository, TaskIdStrategy.TIME_ORDERED);
+        taskDto = TaskDto.builder()
+                .id(UUID.randomUUID())
+                .title("test task")
+                .description("test description")
+                .status(TaskStatus.NOT_STARTED)
+                .build();
+
+        row = TaskMapper.toRow(taskDto);
+    }
+
+    @Test
+    void getAllTasks_NextCursor() {
+        TaskRow second = row.toBuilder().id(UUID.randomUUID()).title("second").build();
+        when(taskRepository.findFirstPage(2)).thenReturn(Flux.just(row, second));
+
+        StepVerifier.create(taskService.getAllTasks(null, 1))
+                .assertNext(page -> {
+                    assertEquals(1, page.items().size());
+                    assertEquals(taskDto.id(), page.next());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getTaskById_TaskNotFound() {
+        when(taskRepository.findById(taskDto.id())).thenReturn(Mono.empty());
+        when(taskRepository.findArchivedById(taskDto.id())).thenReturn(Mono.empty());
+
+        StepVerifier.create(taskService.getTaskById(taskDto.id()))
+                .verifyError(TaskNotFoundException.class);
+    }
+
+    @Test
+    void getTaskById_FallsBackToArchive() {
+        TaskRow archived = row.toBuilder().status(TaskStatus.COMPLETED).build();
+        when(taskRepository.findById(taskDto.id())).thenReturn(Mono.empty());
+        when(taskRepository.findArchivedById(taskDto.id())).thenReturn(Mono.just(archived));
+
+        StepVerifier.create(taskService.getTaskById(taskDto.id()))
+                .assertNext(dto -> assertEquals(TaskStatus.COMPLETED, dto.status()))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchTasks_BlankQuery() {
+        StepVerifier.create(taskService.searchTasks(" ", null, null))
+                .verifyError(TaskSearchException.class);
+    }
+
+    @Test
+    void searchTasks_InvalidCursor() {
+        StepVerifier.create(taskService.searchTasks("test", "not-a-cursor", null))
+                .verifyError(TaskSearchException.class);
+    }
+
+    @Test
+    void getTaskStats_CountsArchivedTasks() {
+        when(taskRepository.countByStatus()).thenReturn(Flux.just(
+                new TaskStatusCountDto(TaskStatus.NOT_STARTED, 2),
+                new TaskStatusCountDto(TaskStatus.COMPLETED, 1)));
+        when(taskRepository.countArchivedByStatus()).thenReturn(Flux.just(new TaskStatusCountDto(TaskStatus.COMPLETED, 3)));
+
+        StepVerifier.create(taskService.getTaskStats())
+                .assertNext(stats -> {
+                    assertEquals(6, stats.total());
+                    assertEquals(4L, stats.byStatus().get(TaskStatus.COMPLETED));
+                    assertEquals(0L, stats.byStatus().get(TaskStatus.CANCELLED));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void saveTask_TaskIsPresent() {
+        when(taskRepository.insertIfTitleAbsent(any(UUID.class), eq(taskDto.title()), eq(taskDto.description()), eq(taskDto.status().name())))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(taskService.saveTask(taskDto))
+                .verifyError(TaskIsPresentException.class);
+    }
+
+    @Test
+    void saveTask_Success() {
+        when(taskRepository.insertIfTitleAbsent(any(UUID.class), eq(taskDto.title()), eq(taskDto.description()), eq(taskDto.status().name())))
+                .thenReturn(Mono.just(row));
+
+        StepVerifier.create(taskService.saveTask(taskDto))
+                .assertNext(saved -> assertEquals(taskDto.title(), saved.title()))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateTask_SuccessWithNullableFields() {
+        TaskRow updated = row.toBuilder().status(TaskStatus.COMPLETED).build();
+        when(taskRepository.updateTaskFields(taskDto.id(), null, null, "COMPLETED", null)).thenReturn(Mono.just(updated));
+
+        StepVerifier.create(taskService.updateTask(taskDto.id(), TaskDto.builder().status(TaskStatus.COMPLETED).build(), null))
+                .assertNext(dto -> {
+                    assertEquals(taskDto.title(), dto.title());
+                    assertEquals(taskDto.description(), dto.description());
+                    assertEquals(TaskStatus.COMPLETED, dto.status());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void updateTask_StaleVersion() {
+        when(taskRepository.updateTaskFields(taskDto.id(), null, null, "COMPLETED", 3L)).thenReturn(Mono.empty());
+        when(taskRepository.existsById(taskDto.id())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(taskService.updateTask(taskDto.id(), TaskDto.builder().status(TaskStatus.COMPLETED).build(), 3L))
+                .verifyError(TaskVersionMismatchException.class);
+    }
+
+    @Test
+    void deleteTaskById_Success() {
+        when(taskRepository.deleteTaskById(taskDto.id())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(taskService.deleteTaskById(taskDto.id()))
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteTaskById_TaskNotFound() {
+        when(taskRepository.deleteTaskById(taskDto.id())).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(taskService.deleteTaskById(taskDto.id()))
+                .verifyError(TaskNotFoundException.class);
+    }
+}
@@ -0,0 +1,156 @@
+package ru.t1.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.t1.demo.TestContainersConfig;
+import ru.t1.demo.dto.BatchItemStatus;
+import ru.t1.demo.dto.TaskBatchResultDto;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskIsPresentException;
+import ru.t1.demo.exception.TaskNotFoundException;
+import ru.t1.demo.exception.TaskVersionMismatchException;
+import ru.t1.demo.repository.TaskRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Import(TestContainersConfig.class)
+@SpringBootTest(properties = {
+        "tasks.outbox.relay.enabled=false",
+        "spring.cache.type=none",
+        // every terminal task qualifies; the scheduled run only happens at startup
+        "tasks.archive.max-age=-1m",
+        "tasks.archive.interval-ms=3600000"
+})
+class TaskArchiverIntegrationTest {
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    TaskArchiver taskArchiver;
+
+    @Autowired
+    TaskStatusWriteBehind taskStatusWriteBehind;
+
+    @Autowired
+    TaskBatchService taskBatchService;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    TaskDto active;
+    TaskDto completed;
+    TaskDto cancelled;
+
+    @BeforeEach
+    void init() {
+        clear();
+        active = save("active", TaskStatus.IN_PROGRESS);
+        completed = save("completed", TaskStatus.COMPLETED);
+        cancelled = save("cancelled", TaskStatus.CANCELLED);
+        taskArchiver.archive();
+    }
+
+    @AfterEach
+    void clear() {
+        taskRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM task_archive");
+    }
+
+    @Test
+    void archive_MovesTerminalTasksAndLookupsFallBack() {
+        assertEquals(1, taskRepository.count());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM task_archive", Long.class));
+
+        assertEquals(completed, taskService.getTaskById(completed.id()));
+        assertEquals(cancelled, taskService.getTaskById(cancelled.id()));
+        assertEquals(List.of(active), taskService.getAllTasks(null, null).items());
+        assertEquals(3, taskService.getTaskStats().total());
+    }
+
+    @Test
+    void archivedTitle_StaysTaken() {
+        assertThrows(TaskIsPresentException.class, () -> save(completed.title(), TaskStatus.NOT_STARTED));
+        assertThrows(TaskIsPresentException.class,
+                () -> taskService.updateTask(active.id(), TaskDto.builder().title(cancelled.title()).build(), null));
+        assertEquals(active, taskService.getTaskById(active.id()));
+    }
+
+    @Test
+    void updateAndDelete_ReachArchivedTasks() {
+        TaskDto reopened = taskService.updateTask(completed.id(), TaskDto.builder().status(TaskStatus.IN_PROGRESS).build(),
+                completed.version());
+
+        assertEquals(TaskStatus.IN_PROGRESS, reopened.status());
+        assertEquals(completed.version() + 1, reopened.version());
+        assertEquals(2, taskRepository.count());
+
+        taskService.deleteTaskById(cancelled.id());
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(cancelled.id()));
+        assertEquals(cancelled.title(), save(cancelled.title(), TaskStatus.NOT_STARTED).title());
+    }
+
+    @Test
+    void updateTask_LeavesArchivedTaskArchivedUnlessItChanges() {
+        assertThrows(TaskVersionMismatchException.class, () -> taskService.updateTask(completed.id(),
+                TaskDto.builder().status(TaskStatus.IN_PROGRESS).build(), completed.version() + 1));
+        assertThrows(TaskIsPresentException.class,
+                () -> taskService.updateTask(completed.id(), TaskDto.builder().title(active.title()).build(), null));
+        assertEquals(completed, taskService.updateTask(completed.id(),
+                TaskDto.builder().title(completed.title()).status(TaskStatus.COMPLETED).build(), completed.version()));
+
+        assertEquals(1, taskRepository.count());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM task_archive", Long.class));
+    }
+
+    @Test
+    void writeBehind_RestoresOnlyArchivedTasksWhoseStatusChanges() {
+        taskStatusWriteBehind.updateStatus(completed.id(), TaskStatus.COMPLETED);
+        taskStatusWriteBehind.updateStatus(cancelled.id(), TaskStatus.IN_PROGRESS);
+        taskStatusWriteBehind.flush();
+
+        assertEquals(List.of(completed.id()), jdbcTemplate.queryForList("SELECT id FROM task_archive", UUID.class));
+        TaskDto reopened = taskService.getTaskById(cancelled.id());
+        assertEquals(TaskStatus.IN_PROGRESS, reopened.status());
+        assertEquals(cancelled.version() + 1, reopened.version());
+    }
+
+    @Test
+    void batch_UpdatesAndDeletesArchivedTasks() {
+        List<TaskBatchResultDto> updated = taskBatchService.updateTasks(List.of(
+                TaskDto.builder().id(completed.id()).status(TaskStatus.IN_PROGRESS).build(),
+                TaskDto.builder().id(cancelled.id()).status(TaskStatus.CANCELLED).build()));
+
+        assertEquals(List.of(BatchItemStatus.UPDATED, BatchItemStatus.UPDATED),
+                updated.stream().map(TaskBatchResultDto::status).toList());
+        TaskDto reopened = taskService.getTaskById(completed.id());
+        assertEquals(TaskStatus.IN_PROGRESS, reopened.status());
+        assertEquals(completed.version() + 1, reopened.version());
+        assertEquals(List.of(cancelled.id()), jdbcTemplate.queryForList("SELECT id FROM task_archive", UUID.class));
+
+        List<TaskBatchResultDto> deleted = taskBatchService.deleteTasks(List.of(cancelled.id(), completed.id()));
+
+        assertEquals(List.of(BatchItemStatus.DELETED, BatchItemStatus.DELETED),
+                deleted.stream().map(TaskBatchResultDto::status).toList());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM task_archive", Long.class));
+        assertEquals(cancelled.title(), save(cancelled.title(), TaskStatus.NOT_STARTED).title());
+    }
+
+    private TaskDto save(String title, TaskStatus status) {
+        return taskService.saveTask(TaskDto.builder().title(title).status(status).build());
+    }
+}
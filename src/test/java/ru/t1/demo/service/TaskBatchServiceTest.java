@@ -0,0 +1,133 @@
+package ru.t1.demo.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.t1.demo.dto.BatchItemStatus;
+import ru.t1.demo.dto.TaskBatchResultDto;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.repository.TaskOutboxRepository;
+import ru.t1.demo.repository.TaskRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskBatchServiceTest {
+
+    @Mock
+    TaskRepository taskRepository;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    Session session;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    MultiIdentifierLoadAccess<Task> multiLoad;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    TaskOutboxRepository taskOutboxRepository;
+
+    @Mock
+    TaskCacheService taskCacheService;
+
+    TaskBatchService taskBatchService;
+
+    @BeforeEach
+    void setUp() {
+        taskBatchService = new TaskBatchService(taskRepository, entityManager, new TransactionTemplate(transactionManager), taskOutboxRepository, taskCacheService, 2);
+    }
+
+    @Test
+    void saveTasks_ReportsPerItemResults() {
+        when(taskRepository.findExistingTitles(anyCollection())).thenReturn(Set.of("existing"));
+
+        List<TaskBatchResultDto> results = taskBatchService.saveTasks(List.of(
+                task("first"),
+                task("existing"),
+                task("first"),
+                TaskDto.builder().title("no status").build()
+        ));
+
+        assertEquals(BatchItemStatus.CREATED, results.get(0).status());
+        assertEquals(BatchItemStatus.CONFLICT, results.get(1).status());
+        assertEquals(BatchItemStatus.CONFLICT, results.get(2).status());
+        assertEquals(BatchItemStatus.INVALID, results.get(3).status());
+        verify(taskRepository, times(2)).findExistingTitles(anyCollection());
+    }
+
+    @Test
+    void saveTasks_FailedChunkDoesNotFailBatch() {
+        when(taskRepository.findExistingTitles(anyCollection())).thenReturn(Set.of());
+        when(taskRepository.saveAll(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(List.of());
+
+        List<TaskBatchResultDto> results = taskBatchService.saveTasks(List.of(task("a"), task("b"), task("c")));
+
+        assertEquals(BatchItemStatus.FAILED, results.get(0).status());
+        assertEquals(BatchItemStatus.FAILED, results.get(1).status());
+        assertEquals(BatchItemStatus.CREATED, results.get(2).status());
+    }
+
+    @Test
+    void saveTasks_RolledBackTitlesStayFree() {
+        when(taskRepository.findExistingTitles(anyCollection())).thenReturn(Set.of());
+        when(taskRepository.saveAll(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(List.of());
+
+        List<TaskBatchResultDto> results = taskBatchService.saveTasks(List.of(task("a"), task("b"), task("a")));
+
+        assertEquals(BatchItemStatus.FAILED, results.get(0).status());
+        assertEquals(BatchItemStatus.FAILED, results.get(1).status());
+        // "a" from the rolled-back chunk was never created
+        assertEquals(BatchItemStatus.CREATED, results.get(2).status());
+    }
+
+    @Test
+    void deleteTasks_MissingIdsAreNotFound() {
+        Task existing = Task.builder().id(UUID.randomUUID()).title("existing").status(TaskStatus.COMPLETED).build();
+        UUID missing = UUID.randomUUID();
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.byMultipleIds(Task.class)).thenReturn(multiLoad);
+        when(multiLoad.multiLoad(anyList())).thenReturn(List.of(existing));
+
+        List<TaskBatchResultDto> results = taskBatchService.deleteTasks(List.of(existing.getId(), missing));
+
+        assertEquals(BatchItemStatus.DELETED, results.get(0).status());
+        assertEquals(BatchItemStatus.NOT_FOUND, results.get(1).status());
+        verify(taskRepository).deleteAllByIdInBatch(Set.of(existing.getId()));
+        verify(taskCacheService).evictAll(List.of(existing.getId()));
+    }
+
+    private static TaskDto task(String title) {
+        return TaskDto.builder()
+                .title(title)
+                .status(TaskStatus.NOT_STARTED)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.t1.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.t1.demo.dto.TaskChangeDto;
+import ru.t1.demo.entity.TaskChange;
+import ru.t1.demo.entity.TaskChangeType;
+import ru.t1.demo.repository.TaskChangeRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskChangeServiceTest {
+
+    @Mock
+    TaskChangeRepository taskChangeRepository;
+
+    TaskChangeService taskChangeService;
+
+    TaskChange change;
+
+    @BeforeEach
+    void setUp() {
+        taskChangeService = new TaskChangeService(taskChangeRepository, Runnable::run, Duration.ofMillis(200));
+        change = TaskChange.builder()
+                .id(5L)
+                .taskId(UUID.randomUUID())
+                .type(TaskChangeType.CREATED)
+                .changedFields(Map.of("title", "test task"))
+                .version(0L)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    void awaitChanges_ExistingChangesCompleteImmediately() {
+        when(taskChangeRepository.findByIdGreaterThanOrderByIdAsc(4L, Limit.of(TaskChangeService.DEFAULT_BATCH_SIZE)))
+                .thenReturn(List.of(change));
+
+        CompletableFuture<List<TaskChangeDto>> changes = taskChangeService.awaitChanges(4L, null);
+
+        assertTrue(changes.isDone());
+        assertEquals(5L, changes.join().get(0).offset());
+    }
+
+    @Test
+    void awaitChanges_WaitsForPublishedChanges() throws Exception {
+        when(taskChangeRepository.findByIdGreaterThanOrderByIdAsc(4L, Limit.of(TaskChangeService.DEFAULT_BATCH_SIZE)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(change));
+
+        CompletableFuture<List<TaskChangeDto>> changes = taskChangeService.awaitChanges(4L, null);
+        assertFalse(changes.isDone());
+
+        taskChangeService.publish(5L);
+
+        assertEquals(List.of(5L), changes.get(1, TimeUnit.SECONDS).stream().map(TaskChangeDto::offset).toList());
+    }
+
+    @Test
+    void awaitChanges_EmptyAfterTimeout() throws Exception {
+        when(taskChangeRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(1))).thenReturn(List.of());
+
+        assertTrue(taskChangeService.awaitChanges(5L, 1).get(1, TimeUnit.SECONDS).isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+package ru.t1.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskLookupTimeoutException;
+import ru.t1.demo.repository.TaskStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskLookupCoalescerTest {
+
+    static final int CALLERS = 50;
+
+    @Mock
+    TaskStore taskStore;
+
+    MeterRegistry meterRegistry;
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void findById_ConcurrentCallersShareOneQuery() throws Exception {
+        TaskDto task = task();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(taskStore.findDtoById(task.id())).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            release.await();
+            return Optional.of(task);
+        });
+        TaskLookupCoalescer coalescer = coalescer(Duration.ZERO, 100);
+
+        List<Future<Optional<TaskDto>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> coalescer.findById(task.id())));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.findById(task.id())));
+        }
+        // every later caller has joined the load still blocked in the repository
+        while (meterRegistry.counter("tasks.lookup.requests", "coalesced", "true").count() < CALLERS - 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        for (Future<Optional<TaskDto>> result : results) {
+            assertEquals(Optional.of(task), result.get(5, TimeUnit.SECONDS));
+        }
+        verify(taskStore, times(1)).findDtoById(task.id());
+        assertEquals(1, meterRegistry.counter("tasks.lookup.requests", "coalesced", "false").count());
+    }
+
+    @Test
+    void findById_DistinctIdsWithinWindowLoadInOneQuery() throws Exception {
+        List<TaskDto> tasks = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            tasks.add(task());
+        }
+        when(taskStore.findDtosByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return tasks.stream().filter(task -> ids.contains(task.id())).toList();
+        });
+        TaskLookupCoalescer coalescer = coalescer(Duration.ofMillis(200), CALLERS);
+
+        List<Future<Optional<TaskDto>>> results = new ArrayList<>();
+        for (TaskDto task : tasks) {
+            results.add(executor.submit(() -> coalescer.findById(task.id())));
+        }
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertEquals(Optional.of(tasks.get(i)), results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        // the batch filled up before the window passed
+        verify(taskStore, times(1)).findDtosByIdIn(anyCollection());
+        verify(taskStore, never()).findDtoById(any());
+        assertEquals(CALLERS, meterRegistry.summary("tasks.lookup.batch.size").max());
+    }
+
+    @Test
+    void findById_MissingTaskIsEmpty() {
+        UUID id = UUID.randomUUID();
+        when(taskStore.findDtoById(id)).thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), coalescer(Duration.ofMillis(1), 100).findById(id));
+    }
+
+    @Test
+    void findById_JoinedLookupTimesOut() throws Exception {
+        TaskDto task = task();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(taskStore.findDtoById(task.id())).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            release.await();
+            return Optional.of(task);
+        });
+        TaskLookupCoalescer coalescer = coalescer(Duration.ZERO, 100, Duration.ofMillis(50));
+
+        Future<Optional<TaskDto>> owner = executor.submit(() -> coalescer.findById(task.id()));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TaskLookupTimeoutException.class, () -> coalescer.findById(task.id()));
+        release.countDown();
+        assertEquals(Optional.of(task), owner.get(5, TimeUnit.SECONDS));
+    }
+
+    TaskLookupCoalescer coalescer(Duration batchWindow, int maxBatchSize) {
+        return coalescer(batchWindow, maxBatchSize, Duration.ofSeconds(5));
+    }
+
+    TaskLookupCoalescer coalescer(Duration batchWindow, int maxBatchSize, Duration timeout) {
+        return new TaskLookupCoalescer(taskStore, TransactionOperations.withoutTransaction(), meterRegistry, batchWindow, maxBatchSize, timeout);
+    }
+
+    static TaskDto task() {
+        UUID id = UUID.randomUUID();
+        return new TaskDto(id, "task " + id, null, TaskStatus.NOT_STARTED, 0L);
+    }
+}
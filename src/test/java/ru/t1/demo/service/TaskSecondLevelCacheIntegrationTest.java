@@ -0,0 +1,112 @@
+package ru.t1.demo.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import ru.t1.demo.TestContainersConfig;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.repository.TaskRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(TestContainersConfig.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "tasks.outbox.relay.enabled=false",
+        "spring.cache.type=none"
+})
+class TaskSecondLevelCacheIntegrationTest {
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    TaskBatchService taskBatchService;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    TaskDto saved;
+
+    @BeforeEach
+    void init() {
+        taskRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        saved = taskService.saveTask(TaskDto.builder()
+                .title("cached task")
+                .description("cached description")
+                .status(TaskStatus.NOT_STARTED)
+                .build());
+    }
+
+    @Test
+    void repeatedReads_ServedFromCache() {
+        taskRepository.findById(saved.id());
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(taskRepository.findById(saved.id()).isPresent());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void updateTasks_LoadsCachedTasksFromCache() {
+        taskRepository.findById(saved.id());
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        taskBatchService.updateTasks(List.of(TaskDto.builder()
+                .id(saved.id())
+                .status(TaskStatus.IN_PROGRESS)
+                .build()));
+
+        assertEquals(hits + 1, statistics.getSecondLevelCacheHitCount());
+        Task reloaded = taskRepository.findById(saved.id()).orElseThrow();
+        assertEquals(TaskStatus.IN_PROGRESS, reloaded.getStatus());
+        assertEquals(saved.version() + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void updateTask_InvalidatesRegion() {
+        taskRepository.findById(saved.id());
+        assertTrue(entityManagerFactory.getCache().contains(Task.class, saved.id()));
+
+        taskService.updateTask(saved.id(), TaskDto.builder()
+                .title("renamed task")
+                .status(TaskStatus.COMPLETED)
+                .build(), null);
+
+        assertFalse(entityManagerFactory.getCache().contains(Task.class, saved.id()));
+        Task reloaded = taskRepository.findById(saved.id()).orElseThrow();
+        assertEquals("renamed task", reloaded.getTitle());
+        assertEquals(TaskStatus.COMPLETED, reloaded.getStatus());
+        assertEquals(saved.version() + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void deleteTaskById_InvalidatesRegion() {
+        taskRepository.findById(saved.id());
+        assertTrue(entityManagerFactory.getCache().contains(Task.class, saved.id()));
+
+        taskService.deleteTaskById(saved.id());
+
+        assertFalse(entityManagerFactory.getCache().contains(Task.class, saved.id()));
+        assertTrue(taskRepository.findById(saved.id()).isEmpty());
+    }
+}
@@ -0,0 +1,151 @@
+package ru.t1.demo.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.t1.demo.config.CacheConfig;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.repository.TaskStore;
+import ru.t1.demo.util.TaskMapper;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class TaskServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, TaskService.class, TaskCacheService.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.TASKS_CACHE);
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+            return cacheManager;
+        }
+
+        @Bean
+        TaskLookupCoalescer taskLookupCoalescer(TaskStore taskStore) {
+            return new TaskLookupCoalescer(taskStore, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Duration.ZERO, 1, Duration.ofSeconds(5));
+        }
+    }
+
+    @MockBean
+    TaskStore taskStore;
+
+    @MockBean
+    TaskSecondLevelCache taskSecondLevelCache;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    TaskCacheService taskCacheService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    Task task;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.TASKS_CACHE).clear();
+        task = Task.builder()
+                .id(UUID.randomUUID())
+                .title("test task")
+                .status(TaskStatus.NOT_STARTED)
+                .build();
+        when(taskStore.findDtoById(task.getId())).thenReturn(Optional.of(TaskMapper.toDto(task)));
+    }
+
+    @Test
+    void getTaskById_RepeatedReadsHitCache() {
+        long hits = taskCacheService.getStats().hits();
+
+        taskService.getTaskById(task.getId());
+        taskService.getTaskById(task.getId());
+
+        verify(taskStore, times(1)).findDtoById(task.getId());
+        assertEquals(hits + 1, taskCacheService.getStats().hits());
+    }
+
+    @Test
+    void deleteTaskById_EvictsCachedTask() {
+        when(taskStore.deleteTaskById(task.getId())).thenReturn(1);
+
+        taskService.getTaskById(task.getId());
+        taskService.deleteTaskById(task.getId());
+        taskService.getTaskById(task.getId());
+
+        verify(taskStore, times(2)).findDtoById(task.getId());
+    }
+
+    @Test
+    void updateTask_EvictsCachedTask() {
+        Task updated = Task.builder()
+                .id(task.getId())
+                .title(task.getTitle())
+                .status(TaskStatus.COMPLETED)
+                .build();
+        when(taskStore.updateTaskFields(task.getId(), null, null, "COMPLETED", null)).thenReturn(Optional.of(updated));
+
+        taskService.getTaskById(task.getId());
+        taskService.updateTask(task.getId(), TaskDto.builder().status(TaskStatus.COMPLETED).build(), null);
+        when(taskStore.findDtoById(task.getId())).thenReturn(Optional.of(TaskMapper.toDto(updated)));
+
+        assertEquals(TaskStatus.COMPLETED, taskService.getTaskById(task.getId()).status());
+        verify(taskStore, times(2)).findDtoById(task.getId());
+    }
+
+    @Test
+    void updateTask_DropsLoadThatReadTheOldRow() throws Exception {
+        Task updated = Task.builder()
+                .id(task.getId())
+                .title(task.getTitle())
+                .status(TaskStatus.COMPLETED)
+                .build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(taskStore.findDtoById(task.getId()))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    committed.await(5, TimeUnit.SECONDS);
+                    // the update's eviction comes in before this load returns the old row
+                    Thread.sleep(100);
+                    return Optional.of(TaskMapper.toDto(task));
+                })
+                .thenReturn(Optional.of(TaskMapper.toDto(updated)));
+        when(taskStore.updateTaskFields(task.getId(), null, null, "COMPLETED", null)).thenAnswer(invocation -> {
+            committed.countDown();
+            return Optional.of(updated);
+        });
+
+        CompletableFuture<TaskDto> staleLoad = CompletableFuture.supplyAsync(() -> taskService.getTaskById(task.getId()));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        taskService.updateTask(task.getId(), TaskDto.builder().status(TaskStatus.COMPLETED).build(), null);
+
+        assertEquals(TaskStatus.NOT_STARTED, staleLoad.get(5, TimeUnit.SECONDS).status());
+        assertEquals(TaskStatus.COMPLETED, taskService.getTaskById(task.getId()).status());
+    }
+}
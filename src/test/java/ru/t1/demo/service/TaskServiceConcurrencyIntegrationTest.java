@@ -0,0 +1,92 @@
+package ru.t1.demo.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import ru.t1.demo.TestContainersConfig;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskIsPresentException;
+import ru.t1.demo.repository.TaskRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(TestContainersConfig.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // the relay's statements would show up in the global statistics
+        "tasks.outbox.relay.enabled=false",
+        // every attempt is queued on the pool at once; this test is about correctness, not back-pressure
+        "spring.datasource.hikari.connection-timeout=60000"
+})
+class TaskServiceConcurrencyIntegrationTest {
+
+    static final int ATTEMPTS = 2000;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        taskRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveTask_ConcurrentSameTitleExactlyOneWins() throws Exception {
+        TaskDto dto = TaskDto.builder()
+                .title("contended title")
+                .status(TaskStatus.NOT_STARTED)
+                .build();
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(ATTEMPTS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        taskService.saveTask(dto);
+                        created.incrementAndGet();
+                    } catch (TaskIsPresentException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        assertEquals(1, created.get());
+        assertEquals(ATTEMPTS - 1, conflicts.get());
+        // one INSERT ... ON CONFLICT per attempt and no title lookups
+        assertEquals(ATTEMPTS, statistics.getPrepareStatementCount());
+        assertTrue(taskRepository.findTaskByTitle(dto.title()).isPresent());
+    }
+}
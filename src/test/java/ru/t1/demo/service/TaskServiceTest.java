@@ -1,36 +1,54 @@
 package ru.t1.demo.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
 import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.dto.TaskPageDto;
+import ru.t1.demo.dto.TaskStatsDto;
+import ru.t1.demo.dto.TaskStatusCountDto;
 import ru.t1.demo.entity.Task;
+import ru.t1.demo.entity.TaskIdStrategy;
 import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskInvalidException;
 import ru.t1.demo.exception.TaskIsPresentException;
 import ru.t1.demo.exception.TaskNotFoundException;
-import ru.t1.demo.repository.TaskRepository;
+import ru.t1.demo.exception.TaskVersionMismatchException;
+import ru.t1.demo.repository.TaskStore;
 import ru.t1.demo.util.TaskMapper;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
 
     @Mock
-    TaskRepository taskRepository;
+    TaskStore taskStore;
+
+    @Mock
+    TaskSecondLevelCache taskSecondLevelCache;
 
-    @InjectMocks
     TaskService taskService;
 
     TaskDto taskDto;
@@ -40,6 +58,11 @@ class TaskServiceTest {
 
     @BeforeEach
     void setUp() {
+        taskService = new TaskService(taskStore,
+                new TaskLookupCoalescer(taskStore, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Duration.ZERO, 1, Duration.ofSeconds(5)),
+                new TaskCacheService(new NoOpCacheManager()),
+                taskSecondLevelCache,
+                TaskIdStrategy.TIME_ORDERED);
         Faker faker = new Faker();
         Random random = new Random();
         randomTasks = new ArrayList<>();
@@ -73,27 +96,74 @@ class TaskServiceTest {
 
     @Test
     void getAllTask_OneEntity() {
-        when(taskRepository.findAll()).thenReturn(List.of(task));
+        when(taskStore.findAllByOrderByIdAsc(Limit.of(TaskService.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of(taskDto));
 
-        List<TaskDto> tasks = taskService.getAllTasks();
+        TaskPageDto page = taskService.getAllTasks(null, null);
 
-        assertEquals(1, tasks.size());
-        assertEquals(taskDto, tasks.get(0));
+        assertEquals(1, page.items().size());
+        assertEquals(taskDto, page.items().get(0));
+        assertNull(page.next());
     }
 
     @Test
     void getAllTask_MultipleEntity() {
-        when(taskRepository.findAll()).thenReturn(randomTasks);
+        when(taskStore.findAllByOrderByIdAsc(Limit.of(TaskService.DEFAULT_PAGE_SIZE + 1))).thenReturn(randomTasksDto);
+
+        TaskPageDto page = taskService.getAllTasks(null, null);
+
+        assertEquals(randomTasksDto.size(), page.items().size());
+        assertEquals(randomTasksDto.get(0), page.items().get(0));
+    }
+
+    @Test
+    void getAllTask_NextCursor() {
+        UUID after = UUID.randomUUID();
+        when(taskStore.findByIdGreaterThanOrderByIdAsc(after, Limit.of(4))).thenReturn(randomTasksDto.subList(0, 4));
+
+        TaskPageDto page = taskService.getAllTasks(after, 3);
+
+        assertEquals(3, page.items().size());
+        assertEquals(randomTasksDto.get(2).id(), page.next());
+    }
+
+    @Test
+    void getAllTask_PageSizeIsCapped() {
+        when(taskStore.findAllByOrderByIdAsc(Limit.of(TaskService.MAX_PAGE_SIZE + 1))).thenReturn(randomTasksDto);
 
-        List<TaskDto> tasks = taskService.getAllTasks();
+        TaskPageDto page = taskService.getAllTasks(null, Integer.MAX_VALUE);
 
-        assertEquals(randomTasksDto.size(), tasks.size());
-        assertEquals(randomTasksDto.get(0), tasks.get(0));
+        assertEquals(randomTasksDto.size(), page.items().size());
+        assertNull(page.next());
+    }
+
+    @Test
+    void getAllTask_FilteredUsesFilteredQuery() {
+        when(taskStore.findFiltered(null, List.of(TaskStatus.NOT_STARTED), "test", Limit.of(TaskService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(taskDto));
+
+        TaskPageDto page = taskService.getAllTasks(null, null, List.of(TaskStatus.NOT_STARTED), "test");
+
+        assertEquals(List.of(taskDto), page.items());
+        verify(taskStore, never()).findAllByOrderByIdAsc(any());
+    }
+
+    @Test
+    void getTaskStats_FillsMissingStatuses() {
+        when(taskStore.countByStatus()).thenReturn(List.of(
+                new TaskStatusCountDto(TaskStatus.NOT_STARTED, 3),
+                new TaskStatusCountDto(TaskStatus.COMPLETED, 2)));
+
+        TaskStatsDto stats = taskService.getTaskStats();
+
+        assertEquals(5, stats.total());
+        assertEquals(3, stats.byStatus().get(TaskStatus.NOT_STARTED));
+        assertEquals(0, stats.byStatus().get(TaskStatus.IN_PROGRESS));
+        assertEquals(TaskStatus.values().length, stats.byStatus().size());
     }
 
     @Test
     void getTaskById_TaskExists() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.of(task));
+        when(taskStore.findDtoById(taskDto.id())).thenReturn(Optional.of(taskDto));
 
         TaskDto foundTask = taskService.getTaskById(taskDto.id());
 
@@ -102,68 +172,81 @@ class TaskServiceTest {
 
     @Test
     void getTaskById_TaskNotFound() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.empty());
+        when(taskStore.findDtoById(taskDto.id())).thenReturn(Optional.empty());
 
         assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(taskDto.id()));
     }
 
     @Test
     void saveTask_TaskIsPresent() {
-        when(taskRepository.findTaskByTitle(taskDto.title())).thenReturn(Optional.of(task));
+        when(taskStore.insertIfTitleAbsent(any(UUID.class), eq(taskDto.title()), eq(taskDto.description()), eq(taskDto.status().name())))
+                .thenReturn(Optional.empty());
 
         assertThrows(TaskIsPresentException.class, () -> taskService.saveTask(taskDto));
     }
 
     @Test
     void saveTask_Success() {
-        when(taskRepository.findTaskByTitle(taskDto.title())).thenReturn(Optional.empty());
-
-        Task taskToSave = TaskMapper.toEntity(taskDto);
-        when(taskRepository.save(taskToSave)).thenReturn(taskToSave);
+        when(taskStore.insertIfTitleAbsent(any(UUID.class), eq(taskDto.title()), eq(taskDto.description()), eq(taskDto.status().name())))
+                .thenReturn(Optional.of(task));
 
         TaskDto savedTask = taskService.saveTask(taskDto);
 
         assertEquals(taskDto, savedTask);
-        verify(taskRepository).save(any(Task.class));
+        verify(taskStore).insertIfTitleAbsent(any(UUID.class), eq(taskDto.title()), eq(taskDto.description()), eq(taskDto.status().name()));
+        verifyNoMoreInteractions(taskStore);
     }
 
     @Test
     void deleteTaskById_Success() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.of(task));
+        when(taskStore.deleteTaskById(taskDto.id())).thenReturn(1);
 
         taskService.deleteTaskById(taskDto.id());
 
-        verify(taskRepository).delete(task);
+        verify(taskStore).deleteTaskById(taskDto.id());
+        verifyNoMoreInteractions(taskStore);
+        verify(taskSecondLevelCache).evict(taskDto.id());
     }
 
     @Test
     void deleteTaskById_TaskNotFound() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.empty());
+        when(taskStore.deleteTaskById(taskDto.id())).thenReturn(0);
 
         assertThrows(TaskNotFoundException.class, () -> taskService.deleteTaskById(taskDto.id()));
+        verify(taskSecondLevelCache, never()).evict(any());
     }
 
     @Test
     void updateTask_Success() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.of(task));
-
         TaskDto taskToUpdateDto = TaskDto.builder()
                 .title("Updated task")
                 .description("updated description")
                 .status(TaskStatus.CANCELLED)
                 .build();
 
-        TaskDto updatedTaskDto = taskService.updateTask(taskDto.id(), taskToUpdateDto);
+        Task updatedTask = Task.builder()
+                .id(taskDto.id())
+                .title(taskToUpdateDto.title())
+                .description(taskToUpdateDto.description())
+                .status(taskToUpdateDto.status())
+                .build();
+        when(taskStore.updateTaskFields(taskDto.id(), "Updated task", "updated description", "CANCELLED", null))
+                .thenReturn(Optional.of(updatedTask));
+
+        TaskDto updatedTaskDto = taskService.updateTask(taskDto.id(), taskToUpdateDto, null);
 
         assertEquals(taskDto.id(), updatedTaskDto.id());
         assertEquals(taskToUpdateDto.title(), updatedTaskDto.title());
         assertEquals(taskToUpdateDto.description(), updatedTaskDto.description());
         assertEquals(taskToUpdateDto.status(), updatedTaskDto.status());
+        verify(taskStore).updateTaskFields(taskDto.id(), "Updated task", "updated description", "CANCELLED", null);
+        verifyNoMoreInteractions(taskStore);
+        verify(taskSecondLevelCache).evict(taskDto.id());
     }
 
     @Test
     void updateTask_SuccessWithNullableFields() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.of(task));
+        when(taskStore.updateTaskFields(taskDto.id(), null, null, null, null)).thenReturn(Optional.of(task));
 
         TaskDto taskToUpdateDto = TaskDto.builder()
                 .title(null)
@@ -171,7 +254,7 @@ class TaskServiceTest {
                 .status(null)
                 .build();
 
-        TaskDto updatedTaskDto = taskService.updateTask(taskDto.id(), taskToUpdateDto);
+        TaskDto updatedTaskDto = taskService.updateTask(taskDto.id(), taskToUpdateDto, null);
 
         assertEquals(taskDto.id(), updatedTaskDto.id());
         assertEquals(taskDto.title(), updatedTaskDto.title());
@@ -181,7 +264,8 @@ class TaskServiceTest {
 
     @Test
     void updateTask_SuccessWithSameFields() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.of(task));
+        when(taskStore.updateTaskFields(taskDto.id(), taskDto.title(), taskDto.description(), taskDto.status().name(), null))
+                .thenReturn(Optional.of(task));
 
         TaskDto taskToUpdateDto = TaskDto.builder()
                 .title(taskDto.title())
@@ -189,7 +273,7 @@ class TaskServiceTest {
                 .status(taskDto.status())
                 .build();
 
-        TaskDto updatedTaskDto = taskService.updateTask(taskDto.id(), taskToUpdateDto);
+        TaskDto updatedTaskDto = taskService.updateTask(taskDto.id(), taskToUpdateDto, null);
 
         assertEquals(taskDto.id(), updatedTaskDto.id());
         assertEquals(taskDto.title(), updatedTaskDto.title());
@@ -197,9 +281,36 @@ class TaskServiceTest {
         assertEquals(taskDto.status(), updatedTaskDto.status());
     }
 
+    @Test
+    void updateTask_TitleConflict() {
+        when(taskStore.updateTaskFields(taskDto.id(), "taken title", null, null, null))
+                .thenThrow(new DataIntegrityViolationException("duplicate key",
+                        new SQLException("duplicate key value violates unique constraint \"uk_task_title\"", "23505")));
+
+        TaskDto taskToUpdateDto = TaskDto.builder()
+                .title("taken title")
+                .build();
+
+        assertThrows(TaskIsPresentException.class, () -> taskService.updateTask(taskDto.id(), taskToUpdateDto, null));
+    }
+
+    @Test
+    void updateTask_OtherIntegrityViolationIsInvalid() {
+        when(taskStore.updateTaskFields(taskDto.id(), null, "x".repeat(300), null, null))
+                .thenThrow(new DataIntegrityViolationException("too long",
+                        new SQLException("value too long for type character varying(255)", "22001")));
+
+        TaskDto taskToUpdateDto = TaskDto.builder()
+                .description("x".repeat(300))
+                .build();
+
+        assertThrows(TaskInvalidException.class, () -> taskService.updateTask(taskDto.id(), taskToUpdateDto, null));
+    }
+
     @Test
     void updateTask_TaskNotFound() {
-        when(taskRepository.findById(taskDto.id())).thenReturn(Optional.empty());
+        when(taskStore.updateTaskFields(taskDto.id(), "Updated task", "updated description", "CANCELLED", null))
+                .thenReturn(Optional.empty());
 
         TaskDto taskToUpdateDto = TaskDto.builder()
                 .title("Updated task")
@@ -207,6 +318,18 @@ class TaskServiceTest {
                 .status(TaskStatus.CANCELLED)
                 .build();
 
-        assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(taskDto.id(), taskToUpdateDto));
+        assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(taskDto.id(), taskToUpdateDto, null));
+    }
+
+    @Test
+    void updateTask_StaleVersion() {
+        when(taskStore.updateTaskFields(taskDto.id(), null, null, "CANCELLED", 3L)).thenReturn(Optional.empty());
+        when(taskStore.existsById(taskDto.id())).thenReturn(true);
+
+        TaskDto taskToUpdateDto = TaskDto.builder()
+                .status(TaskStatus.CANCELLED)
+                .build();
+
+        assertThrows(TaskVersionMismatchException.class, () -> taskService.updateTask(taskDto.id(), taskToUpdateDto, 3L));
     }
-}
\ No newline at end of file
+}
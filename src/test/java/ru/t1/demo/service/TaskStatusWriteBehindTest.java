@@ -0,0 +1,158 @@
+package ru.t1.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import ru.t1.demo.entity.TaskStatus;
+import ru.t1.demo.exception.TaskStatusQueueFullException;
+import ru.t1.demo.exception.TaskStatusUpdateException;
+import ru.t1.demo.repository.TaskStore;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStatusWriteBehindTest {
+
+    @Mock
+    TaskStore taskStore;
+
+    @Mock
+    TaskCacheService taskCacheService;
+
+    @Mock
+    TaskSecondLevelCache taskSecondLevelCache;
+
+    MeterRegistry meterRegistry;
+    UUID first;
+    UUID second;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        first = UUID.randomUUID();
+        second = UUID.randomUUID();
+    }
+
+    @Test
+    void flush_LatestStatusPerTaskInOneStatement() {
+        when(taskStore.updateStatuses(any(), any())).thenReturn(List.of(first, second));
+        TaskStatusWriteBehind writeBehind = writeBehind(100, 100);
+
+        writeBehind.updateStatus(first, TaskStatus.IN_PROGRESS);
+        writeBehind.updateStatus(second, TaskStatus.IN_PROGRESS);
+        writeBehind.updateStatus(first, TaskStatus.COMPLETED);
+        writeBehind.flush();
+        writeBehind.flush();
+
+        assertArrayEquals(new String[]{"COMPLETED", "IN_PROGRESS"}, flushedStatuses(1).get(0));
+        verify(taskCacheService).evictAll(List.of(first, second));
+        verify(taskSecondLevelCache).evictAll(List.of(first, second));
+        assertEquals(1, meterRegistry.get("tasks.status.updates").tag("outcome", "collapsed").counter().count());
+        assertEquals(0, meterRegistry.get("tasks.status.pending").gauge().value());
+    }
+
+    @Test
+    void updateStatus_FullBatchFlushesWithoutWaitingForTimer() {
+        TaskStatusWriteBehind writeBehind = writeBehind(2, 100);
+
+        writeBehind.updateStatus(first, TaskStatus.IN_PROGRESS);
+        verify(taskStore, never()).updateStatuses(any(), any());
+        writeBehind.updateStatus(second, TaskStatus.COMPLETED);
+
+        verify(taskStore).updateStatuses(new UUID[]{first, second}, new String[]{"IN_PROGRESS", "COMPLETED"});
+    }
+
+    @Test
+    void updateStatus_RejectsNewTasksBeyondCapacity() {
+        TaskStatusWriteBehind writeBehind = writeBehind(100, 1);
+
+        writeBehind.updateStatus(first, TaskStatus.IN_PROGRESS);
+        // a task already pending only replaces its status
+        writeBehind.updateStatus(first, TaskStatus.COMPLETED);
+
+        assertThrows(TaskStatusQueueFullException.class, () -> writeBehind.updateStatus(second, TaskStatus.IN_PROGRESS));
+        assertThrows(TaskStatusUpdateException.class, () -> writeBehind.updateStatus(first, null));
+        assertEquals(1, meterRegistry.get("tasks.status.updates").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void flush_FailedBatchIsRetriedUnlessSuperseded() {
+        when(taskStore.updateStatuses(any(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of(first, second));
+        TaskStatusWriteBehind writeBehind = writeBehind(100, 100);
+
+        writeBehind.updateStatus(first, TaskStatus.IN_PROGRESS);
+        writeBehind.updateStatus(second, TaskStatus.IN_PROGRESS);
+        writeBehind.flush();
+        writeBehind.updateStatus(second, TaskStatus.CANCELLED);
+        writeBehind.flush();
+
+        List<String[]> statuses = flushedStatuses(2);
+        assertArrayEquals(new String[]{"IN_PROGRESS", "CANCELLED"}, statuses.get(1));
+        assertEquals(1, meterRegistry.get("tasks.status.flush.failures").counter().count());
+    }
+
+    @Test
+    void stop_DrainsBufferAndRejectsLaterUpdates() {
+        TaskStatusWriteBehind writeBehind = writeBehind(100, 100);
+
+        writeBehind.updateStatus(first, TaskStatus.COMPLETED);
+        writeBehind.stop();
+
+        verify(taskStore).updateStatuses(new UUID[]{first}, new String[]{"COMPLETED"});
+        assertThrows(TaskStatusQueueFullException.class, () -> writeBehind.updateStatus(second, TaskStatus.COMPLETED));
+    }
+
+    @Test
+    void stop_RetriesFailedFlushOnce() {
+        when(taskStore.updateStatuses(any(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of(first));
+        TaskStatusWriteBehind writeBehind = writeBehind(100, 100);
+
+        writeBehind.updateStatus(first, TaskStatus.COMPLETED);
+        writeBehind.stop();
+
+        verify(taskStore, times(2)).updateStatuses(new UUID[]{first}, new String[]{"COMPLETED"});
+        verify(taskCacheService).evictAll(List.of(first));
+    }
+
+    @Test
+    void stop_DropsUpdatesThatFailTwice() {
+        when(taskStore.updateStatuses(any(), any())).thenThrow(new QueryTimeoutException("timeout"));
+        TaskStatusWriteBehind writeBehind = writeBehind(100, 100);
+
+        writeBehind.updateStatus(first, TaskStatus.COMPLETED);
+        writeBehind.stop();
+
+        verify(taskStore, times(2)).updateStatuses(any(), any());
+        assertEquals(0, meterRegistry.get("tasks.status.pending").gauge().value());
+    }
+
+    private TaskStatusWriteBehind writeBehind(int batchSize, int capacity) {
+        TaskStatusWriteBehind writeBehind = new TaskStatusWriteBehind(taskStore, taskCacheService, taskSecondLevelCache,
+                Runnable::run, meterRegistry, batchSize, capacity);
+        writeBehind.start();
+        return writeBehind;
+    }
+
+    private List<String[]> flushedStatuses(int flushes) {
+        ArgumentCaptor<String[]> statuses = ArgumentCaptor.forClass(String[].class);
+        verify(taskStore, times(flushes)).updateStatuses(any(), statuses.capture());
+        return statuses.getAllValues();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.t1.demo.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.junit.jupiter.api.Test;
+import ru.t1.demo.dto.TaskDto;
+import ru.t1.demo.entity.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskProtobufTest {
+
+    @Test
+    void write_ReadsBackWithNullsLeftOut() throws IOException {
+        TaskDto full = new TaskDto(UUID.randomUUID(), "title", "описание", TaskStatus.CANCELLED, 3L);
+        TaskDto sparse = TaskDto.builder().title("only title").build();
+
+        for (TaskDto task : List.of(full, sparse)) {
+            byte[] bytes = write(task);
+
+            assertEquals(TaskProtobuf.size(task), bytes.length);
+            assertEquals(task, TaskProtobuf.read(CodedInputStream.newInstance(bytes)));
+        }
+        // field 2, length 10, "only title"
+        assertEquals(12, write(sparse).length);
+    }
+
+    @Test
+    void writeDelimited_ReadsBackAsList() throws IOException {
+        List<TaskDto> tasks = List.of(
+                new TaskDto(UUID.randomUUID(), "first", null, TaskStatus.NOT_STARTED, 0L),
+                TaskDto.builder().build(),
+                new TaskDto(UUID.randomUUID(), "third", "description", TaskStatus.COMPLETED, 7L));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        for (TaskDto task : tasks) {
+            TaskProtobuf.writeDelimited(task, output);
+        }
+        output.flush();
+
+        assertEquals(tasks, TaskProtobuf.readDelimited(CodedInputStream.newInstance(bytes.toByteArray())));
+        assertEquals(List.of(), TaskProtobuf.readDelimited(CodedInputStream.newInstance(new byte[0])));
+    }
+
+    @Test
+    void read_SkipsUnknownFieldsAndRejectsBadIds() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        output.writeString(2, "title");
+        output.writeInt64(99, 42);
+        output.flush();
+
+        assertEquals(TaskDto.builder().title("title").build(), TaskProtobuf.read(CodedInputStream.newInstance(bytes.toByteArray())));
+
+        // field 1 with 3 bytes instead of 16
+        byte[] shortId = {0x0a, 0x03, 1, 2, 3};
+        assertThrows(InvalidProtocolBufferException.class, () -> TaskProtobuf.read(CodedInputStream.newInstance(shortId)));
+        // status 9 is not in task.proto
+        byte[] unknownStatus = {0x20, 0x09};
+        assertThrows(InvalidProtocolBufferException.class, () -> TaskProtobuf.read(CodedInputStream.newInstance(unknownStatus)));
+        assertArrayEquals(new byte[0], write(TaskDto.builder().build()));
+    }
+
+    private static byte[] write(TaskDto task) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        TaskProtobuf.write(task, output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+}